@@ -1,6 +1,7 @@
 package com.example.apiclient;
 
 import com.example.domain.github.GitHubPosition;
+import com.example.util.OperationTimer;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -10,7 +11,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.example.util.CommonUtil.startTimer;
-import static com.example.util.CommonUtil.timeTaken;
+import static com.example.util.FutureUtil.allAsList;
 import static com.example.util.LoggerUtil.log;
 
 /** Class deprecated
@@ -43,33 +44,31 @@ public class GitHubJobsClient {
     }
 
     public List<GitHubPosition> invokeGithubJobsApiWithMultiplePageNumbersCF(List<Integer> pageList, String description) {
-        startTimer();
+        OperationTimer timer = startTimer("GitHubJobsClient.invokeGithubJobsApiWithMultiplePageNumbersCF");
 
         List<CompletableFuture<List<GitHubPosition>>> gitHubPositions = pageList.stream()
                 .map(pageNum -> CompletableFuture.supplyAsync(() -> invokeGithubJobsAPIWithPageNumber(pageNum, description)))
                 .collect(Collectors.toList());
 
-        CompletableFuture<Void> cfAllOf = CompletableFuture.allOf(gitHubPositions.toArray(new CompletableFuture[0]));
-
-        List<GitHubPosition>  gitHubPositionsList =  cfAllOf
-                .thenApply(v-> gitHubPositions.stream().map(CompletableFuture::join)
+        List<GitHubPosition>  gitHubPositionsList =  allAsList(gitHubPositions)
+                .thenApply(pages -> pages.stream()
                         .flatMap(Collection::stream)
                         .collect(Collectors.toList()))
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
         return gitHubPositionsList;
     }
 
     public List<GitHubPosition> invokeGithubJobsApiWithPageNumberList(List<Integer> pageList, String description) {
-        startTimer();
+        OperationTimer timer = startTimer("GitHubJobsClient.invokeGithubJobsApiWithPageNumberList");
 
         List<GitHubPosition> gitHubPositionsList = pageList.stream()
                 .map(pageNum ->  invokeGithubJobsAPIWithPageNumber(pageNum, description))
                 .flatMap(Collection::stream)
                 .collect(Collectors.toList());
 
-        timeTaken();
+        timer.timeTaken();
         return gitHubPositionsList;
     }
 
@@ -1,18 +1,28 @@
 package com.example.competablefuture;
 
 import com.example.service.HelloWorldService;
+import com.example.util.AdaptiveConcurrencyLimiter;
+import com.example.util.OperationTimer;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 import static com.example.util.CommonUtil.*;
+import static com.example.util.FutureUtil.allAsList;
+import static com.example.util.FutureUtil.race;
+import static com.example.util.FutureUtil.zip;
 import static com.example.util.LoggerUtil.log;
-import static java.util.stream.Collectors.joining;
+import static com.example.util.ManagedBlocking.callBlocking;
+import static com.example.util.ManagedBlocking.supplyBlocking;
 
 public class CompletableFutureHelloWorld {
 
+    // remote calls : raced against each other and interrupted when they lose, or bounded by helloWorldLimiter
+    static ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    static AdaptiveConcurrencyLimiter helloWorldLimiter = new AdaptiveConcurrencyLimiter("hello-world", 20, 1, 1000, 2.0);
     private HelloWorldService hws;
 
     public CompletableFutureHelloWorld(HelloWorldService helloWorldService) {
@@ -21,38 +31,38 @@ public class CompletableFutureHelloWorld {
 
     public CompletableFuture<String> helloWorld() {
 
-        return CompletableFuture.supplyAsync(() -> hws.helloWorld())//  runs this in a common fork-join pool
+        return supplyBlocking(() -> hws.helloWorld())//  runs this in a common fork-join pool
                 .thenApply(String::toUpperCase);
     }
 
     public CompletableFuture<String> helloWorld_withSize() {
 
-        return CompletableFuture.supplyAsync(() -> hws.helloWorld())//  runs this in a common fork-join pool
+        return supplyBlocking(() -> hws.helloWorld())//  runs this in a common fork-join pool
                 .thenApply(String::toUpperCase)
                 .thenApply(s -> s.length() + " - " + s);
     }
 
     public String helloWorld_multiple_async_calls() {
-        startTimer();
-        CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello());
-        CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world());
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_multiple_async_calls");
+        CompletableFuture<String> hello = supplyBlocking(() -> this.hws.hello());
+        CompletableFuture<String> world = supplyBlocking(() -> this.hws.world());
 
         String hw = hello
                 .thenCombine(world, (h, w) -> h + w) // (first,second)
                 .thenApply(String::toUpperCase)
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
 
 
     public String helloWorld_3_async_calls() {
-        startTimer();
-        CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello());
-        CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world());
-        CompletableFuture<String> hiCompletableFuture = CompletableFuture.supplyAsync(() -> {
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_3_async_calls");
+        CompletableFuture<String> hello = supplyBlocking(() -> this.hws.hello());
+        CompletableFuture<String> world = supplyBlocking(() -> this.hws.world());
+        CompletableFuture<String> hiCompletableFuture = supplyBlocking(() -> {
             delay(1000);
             return " HI CompletableFuture!";
         });
@@ -63,16 +73,16 @@ public class CompletableFutureHelloWorld {
                 .thenApply(String::toUpperCase)
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
 
     public String helloWorld_3_async_calls_log() {
-        startTimer();
-        CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello());
-        CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world());
-        CompletableFuture<String> hiCompletableFuture = CompletableFuture.supplyAsync(() -> {
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_3_async_calls_log");
+        CompletableFuture<String> hello = supplyBlocking(() -> this.hws.hello());
+        CompletableFuture<String> world = supplyBlocking(() -> this.hws.world());
+        CompletableFuture<String> hiCompletableFuture = supplyBlocking(() -> {
             delay(1000);
             return " HI CompletableFuture!";
         });
@@ -95,16 +105,16 @@ public class CompletableFutureHelloWorld {
                 })
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
 
     public String helloWorld_3_async_calls_log_async() {
-        startTimer();
-        CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello());
-        CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world());
-        CompletableFuture<String> hiCompletableFuture = CompletableFuture.supplyAsync(() -> {
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_3_async_calls_log_async");
+        CompletableFuture<String> hello = supplyBlocking(() -> this.hws.hello());
+        CompletableFuture<String> world = supplyBlocking(() -> this.hws.world());
+        CompletableFuture<String> hiCompletableFuture = supplyBlocking(() -> {
             delay(1000);
             return " HI CompletableFuture!";
         });
@@ -117,36 +127,41 @@ public class CompletableFutureHelloWorld {
                 }) // (first,second)
                 //.thenCombine(hiCompletableFuture, (previous, current) -> previous + current)
                 .thenCombineAsync(hiCompletableFuture, (previous, current) -> {
-                    this.hws.hello();
+                    callBlocking(this.hws::hello);
                     log("thenCombine , previous/current");
                     return previous + current;
                 })
                 //.thenApply(String::toUpperCase)
                 .thenApplyAsync(s -> {
-                    this.hws.hello();
+                    callBlocking(this.hws::hello);
                     log("thenApply");
                     return s.toUpperCase();
                 })
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
 
 
+    /**
+     * The three calls run on {@link #ioExecutor}, at most as many at once as {@link #helloWorldLimiter} allows, rather
+     * than on a pool sized from the cores.
+     */
     public String helloWorld_3_async_calls_custom_threadPool() {
 
-        ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_3_async_calls_custom_threadPool");
+        CompletableFuture<String> hello = helloWorldLimiter.execute(
+                () -> CompletableFuture.supplyAsync(() -> this.hws.hello(), ioExecutor));
+        CompletableFuture<String> world = helloWorldLimiter.execute(
+                () -> CompletableFuture.supplyAsync(() -> this.hws.world(), ioExecutor));
 
-        startTimer();
-        CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello(), executorService);
-        CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world(), executorService);
-
-        CompletableFuture<String> hiCompletableFuture = CompletableFuture.supplyAsync(() -> {
-            delay(1000);
-            return " HI CompletableFuture!";
-        }, executorService);
+        CompletableFuture<String> hiCompletableFuture = helloWorldLimiter.execute(
+                () -> CompletableFuture.supplyAsync(() -> {
+                    delay(1000);
+                    return " HI CompletableFuture!";
+                }, ioExecutor));
 
         String hw = hello
                 // .thenCombine(world, (h, w) -> h + w) // (first,second)
@@ -166,7 +181,7 @@ public class CompletableFutureHelloWorld {
                 })
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
@@ -175,7 +190,7 @@ public class CompletableFutureHelloWorld {
 
         ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
 
-        startTimer();
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_3_async_calls_custom_threadpool_async");
         CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello(), executorService);
         CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world(), executorService);
 
@@ -207,41 +222,39 @@ public class CompletableFutureHelloWorld {
                 })
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
 
 
     public String helloWorld_4_async_calls() {
-        startTimer();
-        CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello());
-        CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world());
-        CompletableFuture<String> hiCompletableFuture = CompletableFuture.supplyAsync(() -> {
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_4_async_calls");
+        CompletableFuture<String> hello = supplyBlocking(() -> this.hws.hello());
+        CompletableFuture<String> world = supplyBlocking(() -> this.hws.world());
+        CompletableFuture<String> hiCompletableFuture = supplyBlocking(() -> {
             delay(1000);
             return " HI CompletableFuture!";
         });
-        CompletableFuture<String> byeCompletableFuture = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<String> byeCompletableFuture = supplyBlocking(() -> {
             delay(1000);
             return " Bye!";
         });
 
 
-        String hw = hello
-                .thenCombine(world, (h, w) -> h + w) // (first,second)
-                .thenCombine(hiCompletableFuture, (previous, current) -> previous + current)
-                .thenCombine(byeCompletableFuture, (previous, current) -> previous + current)
+        String hw = zip(hello, world, hiCompletableFuture, byeCompletableFuture,
+                (h, w, hi, bye) -> h + w + hi + bye)
                 .thenApply(String::toUpperCase)
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
 
     public CompletableFuture<String> helloWorld_thenCompose() {
 
-        return CompletableFuture.supplyAsync(() -> this.hws.hello())
+        return supplyBlocking(() -> this.hws.hello())
                 .thenCompose(previous -> hws.worldFuture(previous))
                 //.thenApply(previous -> helloWorldService.worldFuture(previous))
                 .thenApply(String::toUpperCase);
@@ -249,46 +262,44 @@ public class CompletableFutureHelloWorld {
     }
 
     public String allOf() {
-        startTimer();
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.allOf");
 
-        CompletableFuture<String> cf1 = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<String> cf1 = supplyBlocking(() -> {
             delay(1000);
             return "Hello";
         });
 
-        CompletableFuture<String> cf2 = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<String> cf2 = supplyBlocking(() -> {
             delay(2000);
             return " World";
         });
 
-        List<CompletableFuture<String>> cfList = List.of(cf1, cf2);
-        CompletableFuture<Void> cfAllOf = CompletableFuture.allOf(cfList.toArray(new CompletableFuture[0]));
-        String result = cfAllOf.thenApply(v -> cfList.stream()
-                .map(CompletableFuture::join)
-                .collect(joining())).join();
+        String result = allAsList(List.of(cf1, cf2))
+                .thenApply(results -> String.join("", results))
+                .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return result;
 
     }
 
     public String anyOf() {
-        startTimer();
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.anyOf");
 
-        CompletableFuture<String> db = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<String> db = supplyBlocking(() -> {
             delay(1000);
             log("response from db");
             return "Hello World";
         });
 
-        CompletableFuture<String> restApi = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<String> restApi = supplyBlocking(() -> {
             delay(2000);
             log("response from restApi");
             return "Hello World";
         });
 
-        CompletableFuture<String> soapApi = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<String> soapApi = supplyBlocking(() -> {
             delay(3000);
             log("response from soapApi");
             return "Hello World";
@@ -303,14 +314,46 @@ public class CompletableFutureHelloWorld {
             return null;
         }).join();
 
-        timeTaken();
+        timer.timeTaken();
+        return result;
+    }
+
+
+    /**
+     * Like {@link #anyOf()}, but a failed call does not win the race, and the calls still running once it is won
+     * are interrupted instead of holding their threads until they return.
+     */
+    public String anyOf_race() {
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.anyOf_race");
+
+        Supplier<String> db = () -> {
+            delay(1000);
+            log("response from db");
+            return "Hello World";
+        };
+
+        Supplier<String> restApi = () -> {
+            delay(2000);
+            log("response from restApi");
+            return "Hello World";
+        };
+
+        Supplier<String> soapApi = () -> {
+            delay(3000);
+            log("response from soapApi");
+            return "Hello World";
+        };
+
+        String result = race(List.of(db, restApi, soapApi), ioExecutor).join();
+
+        timer.timeTaken();
         return result;
     }
 
 
     public String helloWorld_1() {
 
-        return CompletableFuture.supplyAsync(() -> hws.helloWorld())//  runs this in a common fork-join pool
+        return supplyBlocking(() -> hws.helloWorld())//  runs this in a common fork-join pool
                 .thenApply(String::toUpperCase)
                 .join();
 
@@ -332,7 +375,7 @@ public class CompletableFutureHelloWorld {
     public static void main(String[] args) {
 
         HelloWorldService helloWorldService = new HelloWorldService();
-        CompletableFuture.supplyAsync(helloWorldService::helloWorld) //  runs this in a common fork-join pool
+        supplyBlocking(helloWorldService::helloWorld) //  runs this in a common fork-join pool
                 .thenApply(String::toUpperCase)
                 .thenAccept(result -> log("result " + result))
                 .join();
@@ -1,6 +1,7 @@
 package com.example.competablefuture;
 
 import com.example.service.HelloWorldService;
+import com.example.util.OperationTimer;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -16,7 +17,7 @@ public class CompletableFutureHelloWorldException {
     }
 
     public String helloWorld_3_async_calls_handle() {
-        startTimer();
+        OperationTimer timer = startTimer("CompletableFutureHelloWorldException.helloWorld_3_async_calls_handle");
         CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello());
         CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world());
         CompletableFuture<String> hiCompletableFuture = CompletableFuture.supplyAsync(() -> {
@@ -48,13 +49,13 @@ public class CompletableFutureHelloWorldException {
 
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
 
     public String helloWorld_3_async_calls_exceptionally() {
-        startTimer();
+        OperationTimer timer = startTimer("CompletableFutureHelloWorldException.helloWorld_3_async_calls_exceptionally");
         CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello());
         CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world());
         CompletableFuture<String> hiCompletableFuture = CompletableFuture.supplyAsync(() -> {
@@ -77,14 +78,14 @@ public class CompletableFutureHelloWorldException {
 
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
         return hw;
     }
 
 
     public String helloWorld_3_async_whenComplete() {
-        startTimer();
+        OperationTimer timer = startTimer("CompletableFutureHelloWorldException.helloWorld_3_async_whenComplete");
         CompletableFuture<String> hello = CompletableFuture.supplyAsync(() -> this.hws.hello());
         CompletableFuture<String> world = CompletableFuture.supplyAsync(() -> this.hws.world());
         CompletableFuture<String> hiCompletableFuture = CompletableFuture.supplyAsync(() -> {
@@ -115,7 +116,7 @@ public class CompletableFutureHelloWorldException {
 
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
         return hw;
     }
 
@@ -0,0 +1,100 @@
+package com.example.competablefuture;
+
+import com.example.domain.ProductInfo;
+import com.example.domain.Review;
+import com.example.service.ProductInfoService;
+import com.example.service.ReviewService;
+import com.example.util.AdaptiveConcurrencyLimiter;
+import com.example.util.BatchLoader;
+import com.example.util.Bulkhead;
+import com.example.util.CircuitBreaker;
+import com.example.util.Hedger;
+import com.example.util.Retry;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * What {@link ProductServiceUsingCompletableFuture} puts around its calls to the product info, review and inventory
+ * services : hedgers, batch loaders, one bulkhead, circuit breaker and concurrency limiter per service, and the retry
+ * policy.
+ * <p>
+ * {@link #defaults} holds the sizes the service uses unless it is given its own. To tune them, start from
+ * {@code defaults(...).toBuilder()}. The bulkheads own their threads : {@link #shutdown()} stops them.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ProductServicePolicies {
+
+    private final Hedger productInfoHedger;
+    private final Hedger reviewHedger;
+    private final BatchLoader<String, ProductInfo> productInfoLoader;
+    private final BatchLoader<String, Review> reviewLoader;
+    private final Bulkhead productInfoBulkhead;
+    private final Bulkhead reviewBulkhead;
+    private final Bulkhead inventoryBulkhead;
+    private final CircuitBreaker productInfoBreaker;
+    private final CircuitBreaker reviewBreaker;
+    private final CircuitBreaker inventoryBreaker;
+    private final AdaptiveConcurrencyLimiter productInfoLimiter;
+    private final AdaptiveConcurrencyLimiter reviewLimiter;
+    private final AdaptiveConcurrencyLimiter inventoryLimiter;
+    private final Retry retry;
+
+    /**
+     * @param ioExecutor where the hedged calls and the bulk calls of the batch loaders run
+     */
+    public static ProductServicePolicies defaults(ProductInfoService productInfoService, ReviewService reviewService,
+                                                  ExecutorService ioExecutor) {
+        return ProductServicePolicies.builder()
+                // a call slower than 95% of the previous ones is hedged
+                .productInfoHedger(Hedger.adaptive(0.95, Duration.ofMillis(1500), ioExecutor))
+                .reviewHedger(Hedger.adaptive(0.95, Duration.ofMillis(1500), ioExecutor))
+                // concurrent requests within 10 ms of each other share one bulk call
+                .productInfoLoader(new BatchLoader<>(
+                        productIds -> productInfoService.retrieveProductInfoBatch(productIds),
+                        Duration.ofMillis(10), 500, ioExecutor))
+                .reviewLoader(new BatchLoader<>(
+                        productIds -> reviewService.retrieveReviewsBatch(productIds),
+                        Duration.ofMillis(10), 500, ioExecutor))
+                // one bulkhead and one breaker per downstream service, so that a slow service cannot starve the others
+                .productInfoBulkhead(new Bulkhead("product-info", 50, 200))
+                .reviewBulkhead(new Bulkhead("review", 50, 200))
+                .inventoryBulkhead(new Bulkhead("inventory", 50, 200))
+                .productInfoBreaker(new CircuitBreaker("product-info", 0.5, 0.8,
+                        Duration.ofSeconds(2), 20, Duration.ofSeconds(10)))
+                .reviewBreaker(new CircuitBreaker("review", 0.5, 0.8,
+                        Duration.ofSeconds(2), 20, Duration.ofSeconds(10)))
+                .inventoryBreaker(new CircuitBreaker("inventory", 0.5, 0.8,
+                        Duration.ofSeconds(1), 20, Duration.ofSeconds(10)))
+                // in-flight limits tuned from the latency of each downstream service
+                .productInfoLimiter(new AdaptiveConcurrencyLimiter("product-info", 20, 1, 1000, 2.0))
+                .reviewLimiter(new AdaptiveConcurrencyLimiter("review", 20, 1, 1000, 2.0))
+                .inventoryLimiter(new AdaptiveConcurrencyLimiter("inventory", 20, 1, 1000, 2.0))
+                // up to 2 retries per call, within the shared retry budget
+                .retry(new Retry(3, Duration.ofMillis(100), Duration.ofSeconds(1)))
+                .build();
+    }
+
+    public List<Bulkhead> getBulkheads() {
+        return List.of(productInfoBulkhead, reviewBulkhead, inventoryBulkhead);
+    }
+
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return List.of(productInfoBreaker, reviewBreaker, inventoryBreaker);
+    }
+
+    public List<AdaptiveConcurrencyLimiter> getConcurrencyLimiters() {
+        return List.of(productInfoLimiter, reviewLimiter, inventoryLimiter);
+    }
+
+    /**
+     * Stops the bulkhead threads, interrupting the calls still running in them.
+     */
+    public void shutdown() {
+        getBulkheads().forEach(Bulkhead::shutdown);
+    }
+}
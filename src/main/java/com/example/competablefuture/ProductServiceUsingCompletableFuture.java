@@ -4,57 +4,171 @@ import com.example.domain.*;
 import com.example.service.InventoryService;
 import com.example.service.ProductInfoService;
 import com.example.service.ReviewService;
-
+import com.example.util.AdaptiveConcurrencyLimiter;
+import com.example.util.BatchLoader;
+import com.example.util.Bulkhead;
+import com.example.util.CircuitBreaker;
+import com.example.util.Deadline;
+import com.example.util.Hedger;
+import com.example.util.OperationTimer;
+import com.example.util.Retry;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static com.example.util.CommonUtil.*;
+import static com.example.util.FutureUtil.supplyCancellable;
+import static com.example.util.FutureUtil.withDeadline;
 import static com.example.util.LoggerUtil.log;
+import static com.example.util.ManagedBlocking.supplyBlocking;
 
 public class ProductServiceUsingCompletableFuture {
+    // remote calls that can be interrupted once their deadline has passed
+    static ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
     private ProductInfoService productInfoService;
     private ReviewService reviewService;
     private InventoryService inventoryService;
+    private final ProductServicePolicies policies;
+    // created here rather than injected : shut down with this service
+    private final boolean ownsPolicies;
+    private final Hedger productInfoHedger;
+    private final Hedger reviewHedger;
+    private final BatchLoader<String, ProductInfo> productInfoLoader;
+    private final BatchLoader<String, Review> reviewLoader;
+    private final Bulkhead productInfoBulkhead;
+    private final Bulkhead reviewBulkhead;
+    private final Bulkhead inventoryBulkhead;
+    private final CircuitBreaker productInfoBreaker;
+    private final CircuitBreaker reviewBreaker;
+    private final CircuitBreaker inventoryBreaker;
+    private final AdaptiveConcurrencyLimiter productInfoLimiter;
+    private final AdaptiveConcurrencyLimiter reviewLimiter;
+    private final AdaptiveConcurrencyLimiter inventoryLimiter;
+    private final Retry retry;
 
     public ProductServiceUsingCompletableFuture(ProductInfoService productInfoService, ReviewService reviewService) {
-        this.productInfoService = productInfoService;
-        this.reviewService = reviewService;
+        this(productInfoService, reviewService, null);
     }
 
     public ProductServiceUsingCompletableFuture(ProductInfoService productInfoService, ReviewService reviewService, InventoryService inventoryService) {
+        this(productInfoService, reviewService, inventoryService,
+                ProductServicePolicies.defaults(productInfoService, reviewService, ioExecutor), true);
+    }
+
+    /**
+     * @param policies what to put around the downstream calls, shut down by the caller once done
+     */
+    public ProductServiceUsingCompletableFuture(ProductInfoService productInfoService, ReviewService reviewService,
+                                                InventoryService inventoryService, ProductServicePolicies policies) {
+        this(productInfoService, reviewService, inventoryService, policies, false);
+    }
+
+    private ProductServiceUsingCompletableFuture(ProductInfoService productInfoService, ReviewService reviewService,
+                                                 InventoryService inventoryService, ProductServicePolicies policies,
+                                                 boolean ownsPolicies) {
         this.productInfoService = productInfoService;
         this.reviewService = reviewService;
         this.inventoryService = inventoryService;
+        this.policies = policies;
+        this.ownsPolicies = ownsPolicies;
+        this.productInfoHedger = policies.getProductInfoHedger();
+        this.reviewHedger = policies.getReviewHedger();
+        this.productInfoLoader = policies.getProductInfoLoader();
+        this.reviewLoader = policies.getReviewLoader();
+        this.productInfoBulkhead = policies.getProductInfoBulkhead();
+        this.reviewBulkhead = policies.getReviewBulkhead();
+        this.inventoryBulkhead = policies.getInventoryBulkhead();
+        this.productInfoBreaker = policies.getProductInfoBreaker();
+        this.reviewBreaker = policies.getReviewBreaker();
+        this.inventoryBreaker = policies.getInventoryBreaker();
+        this.productInfoLimiter = policies.getProductInfoLimiter();
+        this.reviewLimiter = policies.getReviewLimiter();
+        this.inventoryLimiter = policies.getInventoryLimiter();
+        this.retry = policies.getRetry();
+    }
+
+    /**
+     * Shuts down the policies this service created. Injected policies are left to their owner.
+     */
+    public void shutdown() {
+        if (ownsPolicies) {
+            policies.shutdown();
+        }
     }
 
     public Product retrieveProductDetails(String productId) {
 
-        startTimer();
-        CompletableFuture<ProductInfo> cfProductInfo = CompletableFuture.supplyAsync(() -> productInfoService.retrieveProductInfo(productId));
-        CompletableFuture<Review> cfReview = CompletableFuture.supplyAsync(() -> reviewService.retrieveReviews(productId));
+        OperationTimer timer = startTimer("ProductServiceUsingCompletableFuture.retrieveProductDetails");
+        CompletableFuture<ProductInfo> cfProductInfo = supplyBlocking(() -> productInfoService.retrieveProductInfo(productId));
+        CompletableFuture<Review> cfReview = supplyBlocking(() -> reviewService.retrieveReviews(productId));
 
         Product product = cfProductInfo
                 .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review))
                 .join(); // blocks the thread
-        timeTaken();
+        timer.timeTaken();
         return product;
     }
 
     public CompletableFuture<Product> retrieveProductDetails_CF(String productId) {
 
-        CompletableFuture<ProductInfo> cfProductInfo = CompletableFuture.supplyAsync(() -> productInfoService.retrieveProductInfo(productId));
-        CompletableFuture<Review> cfReview = CompletableFuture.supplyAsync(() -> reviewService.retrieveReviews(productId));
+        CompletableFuture<ProductInfo> cfProductInfo = supplyBlocking(() -> productInfoService.retrieveProductInfo(productId));
+        CompletableFuture<Review> cfReview = supplyBlocking(() -> reviewService.retrieveReviews(productId));
+
+        return cfProductInfo
+                .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review));
+    }
+
+    /**
+     * Like {@link #retrieveProductDetails_CF(String)}, but a product info or review call that is slower than 95% of
+     * the previous ones is hedged with a backup call.
+     */
+    public CompletableFuture<Product> retrieveProductDetails_hedged(String productId) {
+
+        CompletableFuture<ProductInfo> cfProductInfo = productInfoHedger.hedge(() -> productInfoService.retrieveProductInfo(productId));
+        CompletableFuture<Review> cfReview = reviewHedger.hedge(() -> reviewService.retrieveReviews(productId));
 
         return cfProductInfo
                 .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review));
     }
 
+    /**
+     * Like {@link #retrieveProductDetails_CF(String)}, but the product info and review lookups of concurrent calls are
+     * batched into one bulk call per service.
+     */
+    public CompletableFuture<Product> retrieveProductDetails_batched(String productId) {
+
+        CompletableFuture<ProductInfo> cfProductInfo = productInfoLoader.load(productId);
+        CompletableFuture<Review> cfReview = reviewLoader.load(productId);
+
+        return cfProductInfo
+                .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review));
+    }
+
+    public BatchLoader<String, ProductInfo> getProductInfoLoader() {
+        return productInfoLoader;
+    }
+
+    public BatchLoader<String, Review> getReviewLoader() {
+        return reviewLoader;
+    }
+
+    public Hedger getProductInfoHedger() {
+        return productInfoHedger;
+    }
+
+    public Hedger getReviewHedger() {
+        return reviewHedger;
+    }
 
     public Product retrieveProductDetailsWithInventory(String productId) {
 
-        startTimer();
-        CompletableFuture<ProductInfo> cfProductInfo = CompletableFuture.supplyAsync(() -> productInfoService.retrieveProductInfo(productId))
+        OperationTimer timer = startTimer("ProductServiceUsingCompletableFuture.retrieveProductDetailsWithInventory");
+        CompletableFuture<ProductInfo> cfProductInfo = supplyBlocking(() -> productInfoService.retrieveProductInfo(productId))
                 .thenApply((productInfo -> {
                     productInfo.setProductOptions(updateInventoryToProductOption(productInfo));
                     return productInfo;
@@ -65,26 +179,26 @@ public class ProductServiceUsingCompletableFuture {
                     return productInfo;
                 }));
 
-        CompletableFuture<Review> cfReview = CompletableFuture.supplyAsync(() -> reviewService.retrieveReviews(productId));
+        CompletableFuture<Review> cfReview = supplyBlocking(() -> reviewService.retrieveReviews(productId));
 
         Product product = cfProductInfo
                 .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review))
                 .join(); // blocks the thread
-        timeTaken();
+        timer.timeTaken();
         return product;
     }
 
     public Product retrieveProductDetailsWithInventory_approach2(String productId) {
 
-        startTimer();
-        CompletableFuture<ProductInfo> cfProductInfo = CompletableFuture.supplyAsync(() -> productInfoService.retrieveProductInfo(productId))
+        OperationTimer timer = startTimer("ProductServiceUsingCompletableFuture.retrieveProductDetailsWithInventory_approach2");
+        CompletableFuture<ProductInfo> cfProductInfo = supplyBlocking(() -> productInfoService.retrieveProductInfo(productId))
                 .thenApply((productInfo -> {
                     productInfo.setProductOptions(updateInventoryToProductOption_approach2(productInfo));
                     //  productInfo.setProductOptions(updateInventoryToProductOption_approach3(productInfo));
                     return productInfo;
                 }));
 
-        CompletableFuture<Review> cfReview = CompletableFuture.supplyAsync(() -> reviewService.retrieveReviews(productId))
+        CompletableFuture<Review> cfReview = supplyBlocking(() -> reviewService.retrieveReviews(productId))
                 .exceptionally((ex) -> {
                     log("Handled the Exception in review Service : " + ex.getMessage());
                     return Review.builder()
@@ -101,71 +215,212 @@ public class ProductServiceUsingCompletableFuture {
                     }
                 })
                 .join(); // blocks the thread
-        timeTaken();
+        timer.timeTaken();
         return product;
     }
 
+    /**
+     * Like {@link #retrieveProductDetailsWithInventory_approach2(String)}, but every downstream service is called in
+     * its own bulkhead, behind its own circuit breaker. While a breaker is open its fallback, an empty product info,
+     * a zero review or an inventory count of 1, is returned right away.
+     */
+    public Product retrieveProductDetailsWithInventory_resilient(String productId) {
+
+        OperationTimer timer = startTimer("ProductServiceUsingCompletableFuture.retrieveProductDetailsWithInventory_resilient");
+        CompletableFuture<ProductInfo> cfProductInfo = productInfoBreaker.execute(
+                        () -> productInfoBulkhead.supply(() -> productInfoService.retrieveProductInfo(productId)),
+                        () -> ProductInfo.builder().productId(productId).productOptions(List.of()).build())
+                .thenCompose(productInfo -> inventoryBreaker.execute(
+                                () -> inventoryBulkhead.supply(() -> inventoryService.retrieveInventory(productInfo.getProductOptions())),
+                                () -> Map.<Integer, Inventory>of())
+                        .thenApply(inventories -> {
+                            productInfo.setProductOptions(withInventory(productInfo.getProductOptions(), inventories));
+                            return productInfo;
+                        }));
+
+        CompletableFuture<Review> cfReview = reviewBreaker.execute(
+                () -> reviewBulkhead.supply(() -> reviewService.retrieveReviews(productId)),
+                () -> Review.builder().noOfReviews(0).overallRating(0.0).build());
 
-    private List<ProductOption> updateInventoryToProductOption(ProductInfo productInfo) {
+        Product product = cfProductInfo
+                .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review))
+                .join();
+        timer.timeTaken();
+        return product;
+    }
 
-        return productInfo.getProductOptions()
-                .stream()
-                .map(productOption -> {
-                    Inventory inventory = inventoryService.retrieveInventory(productOption);
-                    productOption.setInventory(inventory);
-                    return productOption;
+    /**
+     * Like {@link #retrieveProductDetailsWithInventory_approach2(String)}, but the calls to every downstream service
+     * go through its {@link AdaptiveConcurrencyLimiter}. A call beyond the limit is not made, and gets the fallback.
+     */
+    public Product retrieveProductDetailsWithInventory_limited(String productId) {
+
+        OperationTimer timer = startTimer("ProductServiceUsingCompletableFuture.retrieveProductDetailsWithInventory_limited");
+        CompletableFuture<ProductInfo> cfProductInfo = productInfoLimiter.execute(
+                        () -> supplyCancellable(() -> productInfoService.retrieveProductInfo(productId), ioExecutor))
+                .exceptionally(ex -> {
+                    log("Exception in ProductInfo Service : " + ex.getMessage());
+                    return ProductInfo.builder().productId(productId).productOptions(List.of()).build();
                 })
-                .collect(Collectors.toList());
+                .thenCompose(productInfo -> inventoryLimiter.execute(
+                                () -> supplyCancellable(() -> inventoryService.retrieveInventory(productInfo.getProductOptions()), ioExecutor))
+                        .exceptionally(ex -> {
+                            log("Exception in Inventory Service : " + ex.getMessage());
+                            return Map.of();
+                        })
+                        .thenApply(inventories -> {
+                            productInfo.setProductOptions(withInventory(productInfo.getProductOptions(), inventories));
+                            return productInfo;
+                        }));
+
+        CompletableFuture<Review> cfReview = reviewLimiter.execute(
+                        () -> supplyCancellable(() -> reviewService.retrieveReviews(productId), ioExecutor))
+                .exceptionally(ex -> {
+                    log("Handled the Exception in review Service : " + ex.getMessage());
+                    return Review.builder()
+                            .noOfReviews(0).overallRating(0.0)
+                            .build();
+                });
+
+        Product product = cfProductInfo
+                .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review))
+                .join();
+        timer.timeTaken();
+        return product;
+    }
+
+    public List<AdaptiveConcurrencyLimiter> getConcurrencyLimiters() {
+        return policies.getConcurrencyLimiters();
+    }
+
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return policies.getCircuitBreakers();
+    }
+
+    public List<Bulkhead> getBulkheads() {
+        return policies.getBulkheads();
+    }
+
+    /**
+     * Gives the product info, review and inventory calls the {@code budget} of the whole request. Calls still running
+     * when it is used up are interrupted and replaced by fallbacks, so the product comes back within the budget,
+     * with partial data if need be.
+     */
+    public Product retrieveProductDetailsWithInventory(String productId, Duration budget) {
+
+        OperationTimer timer = startTimer("ProductServiceUsingCompletableFuture.retrieveProductDetailsWithInventory_deadline");
+        Product product = retrieveProductDetailsWithInventory_CF(productId, Deadline.after(budget))
+                .join();
+        timer.timeTaken();
+        return product;
+    }
+
+    public CompletableFuture<Product> retrieveProductDetailsWithInventory_CF(String productId, Deadline deadline) {
+
+        CompletableFuture<ProductInfo> cfProductInfo = withDeadline(
+                supplyCancellable(() -> productInfoService.retrieveProductInfo(productId), ioExecutor),
+                deadline, () -> ProductInfo.builder().productId(productId).productOptions(List.of()).build())
+                .thenCompose(productInfo -> updateInventoryToProductOption(productInfo, deadline));
+
+        CompletableFuture<Review> cfReview = withDeadline(
+                supplyCancellable(() -> reviewService.retrieveReviews(productId), ioExecutor),
+                deadline, () -> Review.builder().noOfReviews(0).overallRating(0.0).build());
+
+        return cfProductInfo
+                .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review));
+    }
+
+    /**
+     * Like {@link #retrieveProductDetailsWithInventory(String, Duration)}, but a failed call is retried with a jittered
+     * backoff, as long as the retry budget allows it and the retry can still finish within the {@code budget}.
+     * Only then is the fallback used.
+     */
+    public Product retrieveProductDetailsWithInventory_retrying(String productId, Duration budget) {
+
+        OperationTimer timer = startTimer("ProductServiceUsingCompletableFuture.retrieveProductDetailsWithInventory_retrying");
+        Deadline deadline = Deadline.after(budget);
+        CompletableFuture<ProductInfo> cfProductInfo = withDeadline(
+                retry.execute(() -> supplyCancellable(() -> productInfoService.retrieveProductInfo(productId), ioExecutor), deadline),
+                deadline, () -> ProductInfo.builder().productId(productId).productOptions(List.of()).build())
+                .thenCompose(productInfo -> withDeadline(
+                        retry.execute(() -> supplyCancellable(() -> inventoryService.retrieveInventory(productInfo.getProductOptions()), ioExecutor), deadline),
+                        deadline, () -> Map.<Integer, Inventory>of())
+                        .thenApply(inventories -> {
+                            productInfo.setProductOptions(withInventory(productInfo.getProductOptions(), inventories));
+                            return productInfo;
+                        }));
+
+        CompletableFuture<Review> cfReview = withDeadline(
+                retry.execute(() -> supplyCancellable(() -> reviewService.retrieveReviews(productId), ioExecutor), deadline),
+                deadline, () -> Review.builder().noOfReviews(0).overallRating(0.0).build());
+
+        Product product = cfProductInfo
+                .thenCombine(cfReview, (productInfo, review) -> new Product(productId, productInfo, review))
+                .join();
+        timer.timeTaken();
+        return product;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    private List<ProductOption> updateInventoryToProductOption(ProductInfo productInfo) {
+
+        Map<Integer, Inventory> inventories = inventoryService.retrieveInventory(productInfo.getProductOptions());
+        return withInventory(productInfo.getProductOptions(), inventories);
     }
 
     private List<ProductOption> updateInventoryToProductOption_approach2(ProductInfo productInfo) {
 
-        List<CompletableFuture<ProductOption>> productOptionList = productInfo.getProductOptions()
-                .stream()
-                .map(productOption ->
-                        CompletableFuture.supplyAsync(() -> inventoryService.retrieveInventory(productOption))
-                                .exceptionally((ex) -> {
-                                    log("Exception in Inventory Service : " + ex.getMessage());
-                                    return Inventory.builder()
-                                            .count(1).build();
-                                })
-                                .thenApply((inventory -> {
-                                    productOption.setInventory(inventory);
-                                    return productOption;
-                                })))
-                .collect(Collectors.toList());
+        Map<Integer, Inventory> inventories = supplyBlocking(() -> inventoryService.retrieveInventory(productInfo.getProductOptions()))
+                .exceptionally((ex) -> {
+                    log("Exception in Inventory Service : " + ex.getMessage());
+                    return Map.of();
+                })
+                .join();
 
-        return productOptionList.stream().map(CompletableFuture::join)
-                .collect(Collectors.toList());
+        return withInventory(productInfo.getProductOptions(), inventories);
     }
 
     private List<ProductOption> updateInventoryToProductOption_approach3(ProductInfo productInfo) {
 
-        List<CompletableFuture<ProductOption>> productOptionList = productInfo.getProductOptions()
-                .stream()
-                .map(productOption ->
-                        CompletableFuture.supplyAsync(() -> inventoryService.retrieveInventory(productOption))
-                                .exceptionally((ex) -> {
-                                    log("Exception in Inventory Service : " + ex.getMessage());
-                                    return Inventory.builder()
-                                            .count(1).build();
-                                })
-                                .thenApply((inventory -> {
-                                    productOption.setInventory(inventory);
-                                    return productOption;
-                                })))
-                .collect(Collectors.toList());
-
-        CompletableFuture<Void> cfAllOf = CompletableFuture.allOf(productOptionList.toArray(new CompletableFuture[productOptionList.size()]));
-        return cfAllOf
-                .thenApply(v->{
-                    return  productOptionList.stream().map(CompletableFuture::join)
-                            .collect(Collectors.toList());
+        return supplyBlocking(() -> inventoryService.retrieveInventory(productInfo.getProductOptions()))
+                .exceptionally((ex) -> {
+                    log("Exception in Inventory Service : " + ex.getMessage());
+                    return Map.of();
                 })
+                .thenApply(inventories -> withInventory(productInfo.getProductOptions(), inventories))
                 .join();
 
     }
 
+    private CompletableFuture<ProductInfo> updateInventoryToProductOption(ProductInfo productInfo, Deadline deadline) {
+
+        return withDeadline(supplyCancellable(() -> inventoryService.retrieveInventory(productInfo.getProductOptions()), ioExecutor),
+                deadline, () -> Map.<Integer, Inventory>of())
+                .thenApply(inventories -> {
+                    productInfo.setProductOptions(withInventory(productInfo.getProductOptions(), inventories));
+                    return productInfo;
+                });
+    }
+
+    /**
+     * Sets the inventory of every option from the bulk lookup, with a count of 1 for the options it did not return.
+     */
+    private List<ProductOption> withInventory(List<ProductOption> productOptions, Map<Integer, Inventory> inventories) {
+
+        return productOptions
+                .stream()
+                .map(productOption -> {
+                    Inventory inventory = inventories.getOrDefault(productOption.getProductionOptionId(),
+                            Inventory.builder().count(1).build());
+                    productOption.setInventory(inventory);
+                    return productOption;
+                })
+                .collect(Collectors.toList());
+    }
+
     public static void main(String[] args) {
 
         ProductInfoService productInfoService = new ProductInfoService();
@@ -174,6 +429,7 @@ public class ProductServiceUsingCompletableFuture {
         String productId = "ABC123";
         Product product = productService.retrieveProductDetails(productId);
         log("Product is " + product);
+        productService.shutdown();
 
     }
 }
@@ -0,0 +1,123 @@
+package com.example.competablefuture;
+
+import com.example.util.FutureUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.example.util.CommonUtil.delay;
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Measures the work wasted by the losers of a race, {@link CompletableFuture#anyOf} against
+ * {@link FutureUtil#race}.
+ * <p>
+ * {@code races} races, 200 by default, are run at once. Each one has three contenders answering in 100, 200 and
+ * 300 ms, the fastest of which fails one time in five. For each strategy it logs how many races returned a result,
+ * how long the losers kept running once the race was decided (the downstream capacity and the threads they held for
+ * nothing) and the peak number of calls in flight.
+ */
+public class RaceBenchmark {
+
+    private static final long[] LATENCIES_MILLIS = {100, 200, 300};
+    private static final double FAILURE_RATE = 0.2;
+
+    public static void main(String[] args) {
+        int races = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+        List<String> results = new ArrayList<>();
+        results.add(run("anyOf", races, executorService, contenders -> {
+            List<CompletableFuture<String>> futures = contenders.stream()
+                    .map(contender -> CompletableFuture.supplyAsync(contender, executorService))
+                    .toList();
+            return CompletableFuture.anyOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(String.class::cast);
+        }));
+        results.add(run("race", races, executorService,
+                contenders -> FutureUtil.race(contenders, executorService)));
+
+        results.forEach(result -> log(result));
+        executorService.shutdown();
+    }
+
+    private interface Strategy {
+        CompletableFuture<String> race(List<Supplier<String>> contenders);
+    }
+
+    private static String run(String strategy, int races, ExecutorService executorService, Strategy raceStrategy) {
+        Calls calls = new Calls();
+        List<CompletableFuture<String>> results = new ArrayList<>(races);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < races; i++) {
+            AtomicLong decidedAtNanos = new AtomicLong();
+            List<Supplier<String>> contenders = new ArrayList<>();
+            for (int contender = 0; contender < LATENCIES_MILLIS.length; contender++) {
+                boolean fails = contender == 0 && ThreadLocalRandom.current().nextDouble() < FAILURE_RATE;
+                contenders.add(calls.contender(LATENCIES_MILLIS[contender], fails, decidedAtNanos));
+            }
+            results.add(raceStrategy.race(contenders)
+                    .whenComplete((result, ex) -> decidedAtNanos.compareAndSet(0, System.nanoTime())));
+        }
+
+        long successful = results.stream()
+                .filter(result -> {
+                    try {
+                        result.join();
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                })
+                .count();
+        long decidedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        // the losers of anyOf are still running : wait for them to count their time
+        while (calls.inFlight.get() > 0) {
+            delay(10);
+        }
+
+        return String.format("%s, %d races : %d successful in %d ms, losers ran %d ms after their race was decided"
+                        + " (%d calls interrupted), peak of %d calls in flight",
+                strategy, races, successful, decidedMillis, calls.wastedNanos.sum() / 1_000_000,
+                calls.interrupted.sum(), calls.peakInFlight.get());
+    }
+
+    private static class Calls {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peakInFlight = new AtomicInteger();
+        final LongAdder wastedNanos = new LongAdder();
+        final LongAdder interrupted = new LongAdder();
+
+        Supplier<String> contender(long latencyMillis, boolean fails, AtomicLong decidedAtNanos) {
+            return () -> {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(latencyMillis);
+                    if (fails) {
+                        throw new IllegalStateException("call of " + latencyMillis + " ms failed");
+                    }
+                    return "response after " + latencyMillis + " ms";
+                } catch (InterruptedException e) {
+                    interrupted.increment();
+                    throw new CancellationException("interrupted");
+                } finally {
+                    long endNanos = System.nanoTime();
+                    long decided = decidedAtNanos.get();
+                    if (decided != 0 && endNanos - decided > 0) {
+                        wastedNanos.add(endNanos - decided);
+                    }
+                    inFlight.decrementAndGet();
+                }
+            };
+        }
+    }
+}
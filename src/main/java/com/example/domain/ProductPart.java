@@ -0,0 +1,32 @@
+package com.example.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One part of a product, emitted as soon as it is retrieved : the product info, the review, or the inventory of one
+ * option, and finally a {@link Type#COMPLETE} marker once every part was emitted.
+ * <p>
+ * A part whose lookup failed is still emitted, with the fallback value and the {@code error} that caused it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPart {
+
+    public enum Type {PRODUCT_INFO, REVIEW, INVENTORY, COMPLETE}
+
+    private Type type;
+    private String productId;
+    private ProductInfo productInfo;
+    private Review review;
+    private ProductOption productOption;
+    private String error;
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.domain.checkout;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkCheckoutReport {
+
+    private int noOfCarts;
+    private int noOfSuccess;
+    private int noOfFailure;
+    private int noOfErrors;
+    private long noOfValidationCalls;
+    private long elapsedMillis;
+    private double cartsPerSecond;
+    private long p50LatencyMillis;
+    private long p99LatencyMillis;
+    private long maxLatencyMillis;
+}
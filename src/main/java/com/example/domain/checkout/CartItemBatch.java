@@ -0,0 +1,88 @@
+package com.example.domain.checkout;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Columnar view of a {@link Cart} : one primitive array per {@link CartItem} field, so bulk pricing can run
+ * over the items without touching a single boxed value. The expired flags are kept as a {@link BitSet}.
+ */
+public class CartItemBatch {
+
+    private final Integer cardId;
+    private final int[] itemIds;
+    private final String[] itemNames;
+    private final double[] rates;
+    private final int[] quantities;
+    private final BitSet expired;
+
+    public CartItemBatch(Integer cardId, int[] itemIds, String[] itemNames, double[] rates, int[] quantities,
+                         BitSet expired) {
+        int size = itemIds.length;
+        if (itemNames.length != size || rates.length != size || quantities.length != size) {
+            throw new IllegalArgumentException("all columns must have the same length");
+        }
+        this.cardId = cardId;
+        this.itemIds = itemIds;
+        this.itemNames = itemNames;
+        this.rates = rates;
+        this.quantities = quantities;
+        this.expired = expired;
+    }
+
+    public static CartItemBatch from(Cart cart) {
+        List<CartItem> cartItemList = cart.getCartItemList();
+        int size = cartItemList.size();
+        int[] itemIds = new int[size];
+        String[] itemNames = new String[size];
+        double[] rates = new double[size];
+        int[] quantities = new int[size];
+        BitSet expired = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            CartItem cartItem = cartItemList.get(i);
+            itemIds[i] = cartItem.getItemId();
+            itemNames[i] = cartItem.getItemName();
+            rates[i] = cartItem.getRate();
+            quantities[i] = cartItem.getQuantity();
+            expired.set(i, cartItem.isExpired());
+        }
+        return new CartItemBatch(cart.getCardId(), itemIds, itemNames, rates, quantities, expired);
+    }
+
+    public Cart toCart() {
+        List<CartItem> cartItemList = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            cartItemList.add(new CartItem(itemIds[i], itemNames[i], rates[i], quantities[i], expired.get(i)));
+        }
+        return new Cart(cardId, cartItemList);
+    }
+
+    public int size() {
+        return itemIds.length;
+    }
+
+    public Integer getCardId() {
+        return cardId;
+    }
+
+    public int itemId(int index) {
+        return itemIds[index];
+    }
+
+    public String itemName(int index) {
+        return itemNames[index];
+    }
+
+    public double rate(int index) {
+        return rates[index];
+    }
+
+    public int quantity(int index) {
+        return quantities[index];
+    }
+
+    public boolean isExpired(int index) {
+        return expired.get(index);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.domain.parallelstream;
 
+import com.example.util.OperationTimer;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -12,7 +14,7 @@ import static com.example.util.LoggerUtil.log;
 public class ArrayListSpliteratorExample {
 
     public List<Integer> multiplyEachValue(ArrayList<Integer> inputList, int multiplyValue, boolean isParallel) {
-        startTimer();
+        OperationTimer timer = startTimer("ArrayListSpliteratorExample.multiplyEachValue");
 
         Stream<Integer> integerStream = inputList.stream();
 
@@ -22,13 +24,13 @@ public class ArrayListSpliteratorExample {
         List<Integer> resultList = integerStream
                 .map(i -> i * multiplyValue)
                 .collect(Collectors.toList());
-        timeTaken();
+        timer.timeTaken();
         log("Completed!");
         return resultList;
     }
 
     public List<Integer> multiplyEachValue(int n , int multiplyValue, boolean isParallel) {
-        startTimer();
+        OperationTimer timer = startTimer("ArrayListSpliteratorExample.multiplyEachValue_intStream");
 
         IntStream integerStream = IntStream.range(0, n); // Stream of primitive int valued elements
 
@@ -39,8 +41,7 @@ public class ArrayListSpliteratorExample {
                 .map(i -> i * multiplyValue)
                 .boxed()
                 .collect(Collectors.toList());
-        timeTaken();
-        stopWatchReset();
+        timer.timeTaken();
         log("Completed!");
         return resultList;
     }
@@ -1,5 +1,7 @@
 package com.example.domain.parallelstream;
 
+import com.example.util.OperationTimer;
+
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -10,7 +12,7 @@ import static com.example.util.LoggerUtil.log;
 public class LinkedListSpliteratorExample {
 
     public List<Integer> multiplyEachValue(List<Integer> inputList, int multiplyValue, boolean isParallel) {
-        startTimer();
+        OperationTimer timer = startTimer("LinkedListSpliteratorExample.multiplyEachValue");
 
         Stream<Integer> integerStream = inputList.stream();
 
@@ -21,8 +23,7 @@ public class LinkedListSpliteratorExample {
         List<Integer> resultList = integerStream
                 .map(i -> i * multiplyValue)
                 .collect(Collectors.toList());
-        timeTaken();
-        stopWatchReset();
+        timer.timeTaken();
         log("Completed!");
         return resultList;
     }
@@ -1,16 +1,17 @@
 package com.example.domain.parallelstream;
 
+import com.example.util.OperationTimer;
+
 import java.util.List;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.example.util.CommonUtil.startTimer;
-import static com.example.util.CommonUtil.timeTaken;
 
 public class ParallelStreamPerformance {
 
     public int sum_using_intstream(int count, boolean isParallel){
-        startTimer();
+        OperationTimer timer = startTimer("ParallelStreamPerformance.sum_using_intstream");
         IntStream intStream = IntStream.rangeClosed(0,count);
 
         if(isParallel)
@@ -18,13 +19,13 @@ public class ParallelStreamPerformance {
 
         int sum = intStream
                 .sum();
-        timeTaken();
+        timer.timeTaken();
         return sum;
     }
 
 
     public int sum_using_list(List<Integer> inputList, boolean isParallel){
-        startTimer();
+        OperationTimer timer = startTimer("ParallelStreamPerformance.sum_using_list");
         Stream<Integer> inputStream = inputList.stream();
 
         if(isParallel)
@@ -33,12 +34,12 @@ public class ParallelStreamPerformance {
         int sum  = inputStream
                 .mapToInt(Integer::intValue) // unboxing
                 .sum();
-        timeTaken();
+        timer.timeTaken();
         return sum;
     }
 
     public int sum_using_iterate(int n, boolean isParallel){
-        startTimer();
+        OperationTimer timer = startTimer("ParallelStreamPerformance.sum_using_iterate");
         Stream<Integer> integerStream = Stream.
                 iterate(0, i ->i+1 );
 
@@ -50,7 +51,7 @@ public class ParallelStreamPerformance {
                 .limit(n+1) // includes the end value too
                 .reduce(0, Integer::sum);
 
-        timeTaken();
+        timer.timeTaken();
         return sum;
     }
 
@@ -1,11 +1,14 @@
 package com.example.domain.parallelstream;
 
+import com.example.util.OperationTimer;
+
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.example.util.CommonUtil.*;
 import static com.example.util.LoggerUtil.log;
+import static com.example.util.ManagedBlocking.callBlocking;
 
 
 public class ParallelStreamsExample {
@@ -39,19 +42,21 @@ public class ParallelStreamsExample {
     }
 
     private String transform(String name) {
-        delay(500);
-        //log("Transforming : " + name);
-        return name.length() + " - " + name;
+        return callBlocking(() -> {
+            delay(500);
+            //log("Transforming : " + name);
+            return name.length() + " - " + name;
+        });
     }
 
     public static void main(String[] args) {
 
         List<String> namesList = List.of("Bob", "Jamie", "Jill", "Rick");
         log("namesList : " + namesList);
-        startTimer();
+        OperationTimer timer = startTimer("ParallelStreamsExample.main");
         ParallelStreamsExample parallelismExample = new ParallelStreamsExample();
         List<String> resultList =parallelismExample.stringTransform(namesList);
-        timeTaken();
+        timer.timeTaken();
         log("resultList : " + resultList);
     }
 }
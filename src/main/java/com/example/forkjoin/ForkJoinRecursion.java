@@ -1,6 +1,7 @@
 package com.example.forkjoin;
 
 import com.example.util.DataSet;
+import com.example.util.OperationTimer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,7 +10,7 @@ import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
 
 import static com.example.util.CommonUtil.delay;
-import static com.example.util.CommonUtil.stopWatch;
+import static com.example.util.CommonUtil.startTimer;
 import static com.example.util.LoggerUtil.log;
 
 public class ForkJoinRecursion extends RecursiveTask<List<String>> {
@@ -22,7 +23,7 @@ public class ForkJoinRecursion extends RecursiveTask<List<String>> {
 
     public static void main(String[] args) {
 
-        stopWatch.start();
+        OperationTimer timer = startTimer("ForkJoinRecursion.main");
 
         List<String> resultList;
         List<String> names = DataSet.namesList();
@@ -30,9 +31,8 @@ public class ForkJoinRecursion extends RecursiveTask<List<String>> {
         ForkJoinRecursion recursionExample = new ForkJoinRecursion(names);
         resultList = pool.invoke(recursionExample);
 
-        stopWatch.stop();
+        timer.timeTaken();
         log("Final Result : "+ resultList);
-        log("Total Time Taken : "+ stopWatch.getTime());
     }
 
 
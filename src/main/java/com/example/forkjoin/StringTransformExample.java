@@ -1,19 +1,20 @@
 package com.example.forkjoin;
 
 import com.example.util.DataSet;
+import com.example.util.OperationTimer;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import static com.example.util.CommonUtil.delay;
-import static com.example.util.CommonUtil.stopWatch;
+import static com.example.util.CommonUtil.startTimer;
 import static com.example.util.LoggerUtil.log;
 
 public class StringTransformExample {
 
     public static void main(String[] args) {
 
-        stopWatch.start();
+        OperationTimer timer = startTimer("StringTransformExample.main");
         List<String> resultList = new ArrayList<>();
         List<String> names = DataSet.namesList();
         log("names : "+ names);
@@ -22,9 +23,8 @@ public class StringTransformExample {
             String newValue = addNameLengthTransform(name);
             resultList.add(newValue);
         });
-        stopWatch.stop();
+        timer.timeTaken();
         log("Final Result : "+ resultList);
-        log("Total Time Taken : "+ stopWatch.getTime());
     }
 
 
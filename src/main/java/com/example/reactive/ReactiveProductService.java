@@ -0,0 +1,165 @@
+package com.example.reactive;
+
+import com.example.domain.Inventory;
+import com.example.domain.Product;
+import com.example.domain.ProductInfo;
+import com.example.domain.ProductOption;
+import com.example.domain.ProductPart;
+import com.example.domain.Review;
+import com.example.service.InventoryService;
+import com.example.service.ProductInfoService;
+import com.example.service.ReviewService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Non-blocking product aggregation with Reactor.
+ * <p>
+ * The product info, review and inventory services block, so every call to them is subscribed on a bounded elastic
+ * scheduler : they never run on the caller's thread or on a Reactor non-blocking thread, and at most
+ * {@code threadCap} of them block at the same time.
+ */
+public class ReactiveProductService {
+
+    // shared by every instance, like CheckoutService.ioExecutor
+    static Scheduler blockingScheduler = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+            Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "product-blocking", 60, true);
+
+    private final ProductInfoService productInfoService;
+    private final ReviewService reviewService;
+    private final InventoryService inventoryService;
+    private final Scheduler scheduler;
+    private final int concurrency;
+
+    public ReactiveProductService(ProductInfoService productInfoService, ReviewService reviewService,
+                                  InventoryService inventoryService) {
+        this(productInfoService, reviewService, inventoryService, blockingScheduler, 16);
+    }
+
+    /**
+     * @param scheduler   the scheduler the blocking service calls run on
+     * @param concurrency the products {@link #retrieveProductDetails(Flux)} retrieves at the same time
+     */
+    public ReactiveProductService(ProductInfoService productInfoService, ReviewService reviewService,
+                                  InventoryService inventoryService, Scheduler scheduler, int concurrency) {
+        this.productInfoService = productInfoService;
+        this.reviewService = reviewService;
+        this.inventoryService = inventoryService;
+        this.scheduler = scheduler;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Zips the product info, the review and the inventory of its options. The review and the product info are
+     * retrieved in parallel, the inventory as soon as the product info is there. A failed review or inventory lookup
+     * falls back to a zero review or an inventory count of 1.
+     */
+    public Mono<Product> retrieveProductDetails(String productId) {
+
+        Mono<ProductInfo> productInfo = blocking(() -> productInfoService.retrieveProductInfo(productId))
+                .cache(); // subscribed to by the zip and by the inventory lookup, retrieved once
+
+        Mono<Review> review = blocking(() -> reviewService.retrieveReviews(productId))
+                .onErrorResume(ex -> {
+                    log("Handled the Exception in review Service : " + ex.getMessage());
+                    return Mono.just(Review.builder()
+                            .noOfReviews(0).overallRating(0.0)
+                            .build());
+                });
+
+        Mono<Map<Integer, Inventory>> inventories = productInfo
+                .flatMap(info -> blocking(() -> inventoryService.retrieveInventory(info.getProductOptions()))
+                        .onErrorResume(ex -> {
+                            log("Exception in Inventory Service : " + ex.getMessage());
+                            return Mono.just(Map.of());
+                        }));
+
+        return Mono.zip(productInfo, review, inventories)
+                .map(tuple -> {
+                    ProductInfo info = tuple.getT1();
+                    ProductInfo infoWithInventory = ProductInfo.builder().productId(info.getProductId())
+                            .productOptions(withInventory(info.getProductOptions(), tuple.getT3()))
+                            .build();
+                    return new Product(productId, infoWithInventory, tuple.getT2());
+                });
+    }
+
+    /**
+     * Retrieves at most {@code concurrency} products at the same time, and only requests more product ids as
+     * products are retrieved, so a slow subscriber or a slow backend holds back the product ids instead of
+     * buffering them. Products are emitted as they complete, not in the order of their ids.
+     */
+    public Flux<Product> retrieveProductDetails(Flux<String> productIds) {
+        return productIds.flatMap(this::retrieveProductDetails, concurrency);
+    }
+
+    /**
+     * Emits every part of the product as soon as it is retrieved, so the first part comes after the fastest lookup
+     * rather than the slowest : the product info and the review in the order they complete, the inventory of every
+     * option once the product info is there, and a {@link ProductPart.Type#COMPLETE} marker last.
+     * <p>
+     * A failed lookup does not fail the stream : its part is emitted with the fallback value and the error, an empty
+     * product info, a zero review or an inventory count of 1. Without product info, no inventory part is emitted.
+     */
+    public Flux<ProductPart> retrieveProductDetailsProgressively(String productId) {
+
+        Mono<ProductInfo> productInfo = blocking(() -> productInfoService.retrieveProductInfo(productId))
+                .cache();
+
+        Mono<ProductPart> productInfoPart = productInfo
+                .map(info -> ProductPart.builder().type(ProductPart.Type.PRODUCT_INFO).productId(productId)
+                        .productInfo(info).build())
+                .onErrorResume(ex -> Mono.just(ProductPart.builder().type(ProductPart.Type.PRODUCT_INFO).productId(productId)
+                        .productInfo(ProductInfo.builder().productId(productId).productOptions(List.of()).build())
+                        .error(String.valueOf(ex.getMessage())).build()));
+
+        Mono<ProductPart> reviewPart = blocking(() -> reviewService.retrieveReviews(productId))
+                .map(review -> ProductPart.builder().type(ProductPart.Type.REVIEW).productId(productId)
+                        .review(review).build())
+                .onErrorResume(ex -> Mono.just(ProductPart.builder().type(ProductPart.Type.REVIEW).productId(productId)
+                        .review(Review.builder().noOfReviews(0).overallRating(0.0).build())
+                        .error(String.valueOf(ex.getMessage())).build()));
+
+        Flux<ProductPart> inventoryParts = productInfo
+                .onErrorResume(ex -> Mono.empty())
+                .flatMapMany(info -> blocking(() -> inventoryService.retrieveInventory(info.getProductOptions()))
+                        .map(inventories -> inventoryParts(productId, info.getProductOptions(), inventories, null))
+                        .onErrorResume(ex -> Mono.just(inventoryParts(productId, info.getProductOptions(), Map.of(),
+                                String.valueOf(ex.getMessage()))))
+                        .flatMapIterable(parts -> parts));
+
+        return Flux.merge(productInfoPart, reviewPart, inventoryParts)
+                .concatWith(Mono.just(ProductPart.builder().type(ProductPart.Type.COMPLETE).productId(productId).build()));
+    }
+
+    private static List<ProductPart> inventoryParts(String productId, List<ProductOption> productOptions,
+                                                    Map<Integer, Inventory> inventories, String error) {
+        return withInventory(productOptions, inventories).stream()
+                .map(productOption -> ProductPart.builder().type(ProductPart.Type.INVENTORY).productId(productId)
+                        .productOption(productOption).error(error).build())
+                .collect(Collectors.toList());
+    }
+
+    private <T> Mono<T> blocking(Supplier<T> call) {
+        return Mono.fromSupplier(call).subscribeOn(scheduler);
+    }
+
+    // copies of the options : the product info already emitted, or cached, must not change under its subscribers
+    private static List<ProductOption> withInventory(List<ProductOption> productOptions, Map<Integer, Inventory> inventories) {
+        return productOptions.stream()
+                .map(productOption -> new ProductOption(productOption.getProductionOptionId(), productOption.getSize(),
+                        productOption.getColor(), productOption.getPrice(),
+                        inventories.getOrDefault(productOption.getProductionOptionId(),
+                                Inventory.builder().count(1).build())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.service;
+
+import com.example.domain.checkout.CartItem;
+import com.example.util.BloomFilter;
+import com.example.util.NamedThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Skips the validator round trip for the items that are definitely valid.
+ * <p>
+ * A {@link BloomFilter} of the {@link PriceValidatorService#invalidItemIds() invalid item ids} is rebuilt every
+ * {@code rebuildInterval} and swapped in with a single volatile write, so lookups never lock. An item that is not
+ * in the filter is valid and answered right away. Only the possible hits, invalid items and false positives, go to
+ * the validator. Until the first build completes every item goes to the validator.
+ * <p>
+ * The filter never takes more than {@code maxBits} bits, {@link #DEFAULT_MAX_BITS} (1 MiB) by default, which hold
+ * about 870 000 invalid ids at a 1% false positive rate. Past its capacity the filter stays the same size and its
+ * false positive rate rises instead, to about 10% at twice the capacity, see {@link #getExpectedFalsePositiveRate()}.
+ * A false positive only costs a validator round trip.
+ * <p>
+ * An item flagged as invalid after the last rebuild is only caught by the next one.
+ */
+public class BloomFilterPriceValidatorService extends PriceValidatorService {
+
+    public static final long DEFAULT_MAX_BITS = 8L * 1024 * 1024;
+
+    private final PriceValidatorService priceValidatorService;
+    private final double falsePositiveRate;
+    private final long maxBits;
+    private final ScheduledExecutorService rebuildScheduler =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("bloom-filter-rebuild"));
+
+    private volatile BloomFilter invalidItemFilter;
+    private volatile int filteredIds;
+
+    private final LongAdder fastPathCount = new LongAdder();
+    private final LongAdder slowPathCount = new LongAdder();
+    private final LongAdder rebuildCount = new LongAdder();
+
+    private BloomFilterPriceValidatorService(PriceValidatorService priceValidatorService,
+                                             double falsePositiveRate, long maxBits) {
+        this.priceValidatorService = priceValidatorService;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBits = maxBits;
+        BloomFilter.create(1, falsePositiveRate, maxBits); // fail fast on an invalid rate or size
+    }
+
+    /**
+     * Creates the service, with a filter of at most {@link #DEFAULT_MAX_BITS} bits, and starts rebuilding the filter
+     * every {@code rebuildInterval}, the first time right away.
+     */
+    public static BloomFilterPriceValidatorService start(PriceValidatorService priceValidatorService,
+                                                         double falsePositiveRate, Duration rebuildInterval) {
+        return start(priceValidatorService, falsePositiveRate, rebuildInterval, DEFAULT_MAX_BITS);
+    }
+
+    public static BloomFilterPriceValidatorService start(PriceValidatorService priceValidatorService,
+                                                         double falsePositiveRate, Duration rebuildInterval,
+                                                         long maxBits) {
+        BloomFilterPriceValidatorService service =
+                new BloomFilterPriceValidatorService(priceValidatorService, falsePositiveRate, maxBits);
+        service.rebuildScheduler.scheduleWithFixedDelay(service::rebuildSafely,
+                0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        return service;
+    }
+
+    @Override
+    public boolean isCartItemInvalid(CartItem cartItem) {
+        if (isDefinitelyValid(cartItem)) {
+            return false;
+        }
+        return priceValidatorService.isCartItemInvalid(cartItem);
+    }
+
+    @Override
+    public BitSet validate(List<CartItem> cartItems) {
+        List<Integer> possibleHitIndexes = new ArrayList<>();
+        List<CartItem> possibleHits = new ArrayList<>();
+        for (int i = 0; i < cartItems.size(); i++) {
+            if (!isDefinitelyValid(cartItems.get(i))) {
+                possibleHitIndexes.add(i);
+                possibleHits.add(cartItems.get(i));
+            }
+        }
+
+        BitSet invalidItems = new BitSet(cartItems.size());
+        if (!possibleHits.isEmpty()) {
+            BitSet invalidPossibleHits = priceValidatorService.validate(possibleHits);
+            invalidPossibleHits.stream().forEach(i -> invalidItems.set(possibleHitIndexes.get(i)));
+        }
+        return invalidItems;
+    }
+
+    @Override
+    public Set<Integer> invalidItemIds() {
+        return priceValidatorService.invalidItemIds();
+    }
+
+    /**
+     * Rebuilds the filter from the current invalid item ids and swaps it in.
+     */
+    public void rebuild() {
+        Set<Integer> invalidItemIds = priceValidatorService.invalidItemIds();
+        BloomFilter bloomFilter = BloomFilter.create(invalidItemIds.size(), falsePositiveRate, maxBits);
+        invalidItemIds.forEach(bloomFilter::put);
+        filteredIds = invalidItemIds.size();
+        invalidItemFilter = bloomFilter;
+        rebuildCount.increment();
+        if (getExpectedFalsePositiveRate() > falsePositiveRate * 1.5) {
+            log("Bloom filter capped at " + maxBits + " bits for " + invalidItemIds.size()
+                    + " invalid ids, false positive rate " + getExpectedFalsePositiveRate());
+        }
+    }
+
+    public void shutdown() {
+        rebuildScheduler.shutdownNow();
+    }
+
+    public long getFastPathCount() {
+        return fastPathCount.sum();
+    }
+
+    public long getSlowPathCount() {
+        return slowPathCount.sum();
+    }
+
+    public long getRebuildCount() {
+        return rebuildCount.sum();
+    }
+
+    /**
+     * @return the false positive rate of the current filter, above the configured one once the filter is capped,
+     * or 1 before the first build
+     */
+    public double getExpectedFalsePositiveRate() {
+        BloomFilter bloomFilter = invalidItemFilter;
+        return bloomFilter == null ? 1 : bloomFilter.expectedFalsePositiveRate(filteredIds);
+    }
+
+    private boolean isDefinitelyValid(CartItem cartItem) {
+        BloomFilter bloomFilter = invalidItemFilter;
+        if (bloomFilter != null && !bloomFilter.mightContain(cartItem.getItemId())) {
+            fastPathCount.increment();
+            return true;
+        }
+        slowPathCount.increment();
+        return false;
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // keep serving from the previous filter
+            log("Bloom filter rebuild failed : " + e.getMessage());
+        }
+    }
+}
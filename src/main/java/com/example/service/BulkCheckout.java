@@ -0,0 +1,30 @@
+package com.example.service;
+
+import com.example.domain.checkout.BulkCheckoutReport;
+import com.example.domain.checkout.CheckoutResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handle on a running {@link BulkCheckoutService#checkoutAll(List) bulk checkout} : one future per cart, in the
+ * order of the carts, each completed as soon as that cart is checked out, and the report of the whole batch.
+ */
+public class BulkCheckout {
+
+    private final List<CompletableFuture<CheckoutResponse>> cartResponses;
+    private final CompletableFuture<BulkCheckoutReport> report;
+
+    BulkCheckout(List<CompletableFuture<CheckoutResponse>> cartResponses, CompletableFuture<BulkCheckoutReport> report) {
+        this.cartResponses = cartResponses;
+        this.report = report;
+    }
+
+    public List<CompletableFuture<CheckoutResponse>> getCartResponses() {
+        return cartResponses;
+    }
+
+    public CompletableFuture<BulkCheckoutReport> getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.service;
+
+import com.example.domain.checkout.BulkCheckoutReport;
+import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItem;
+import com.example.domain.checkout.CheckoutResponse;
+import com.example.domain.checkout.CheckoutStatus;
+import com.example.util.CompensatedSum;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.example.util.LoggerUtil.log;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Checks out many carts concurrently, under one limit of in-flight validation calls shared by every batch
+ * submitted to this service.
+ * <p>
+ * Carts are validated in chunks of {@code chunkSize} items. Whenever a validation slot frees up, the next chunk
+ * is taken from the carts in round robin order, so a huge cart gets one slot per round like every other cart and
+ * cannot starve the small ones.
+ */
+public class BulkCheckoutService {
+
+    private final PriceValidatorService priceValidatorService;
+    private final ExecutorService executorService;
+    private final int maxInFlightValidations;
+    private final int chunkSize;
+
+    // guarded by this
+    private final ArrayDeque<CartCheckout> readyCarts = new ArrayDeque<>();
+    private int inFlightValidations;
+
+    public BulkCheckoutService(PriceValidatorService priceValidatorService, int maxInFlightValidations, int chunkSize) {
+        this(priceValidatorService, CheckoutService.ioExecutor, maxInFlightValidations, chunkSize);
+    }
+
+    public BulkCheckoutService(PriceValidatorService priceValidatorService, ExecutorService executorService,
+                               int maxInFlightValidations, int chunkSize) {
+        if (maxInFlightValidations < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("maxInFlightValidations and chunkSize must be positive : "
+                    + maxInFlightValidations + ", " + chunkSize);
+        }
+        this.priceValidatorService = priceValidatorService;
+        this.executorService = executorService;
+        this.maxInFlightValidations = maxInFlightValidations;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkCheckout checkoutAll(List<Cart> carts) {
+
+        Batch batch = new Batch(carts.size());
+        List<CartCheckout> cartCheckouts = new ArrayList<>(carts.size());
+        for (int i = 0; i < carts.size(); i++) {
+            cartCheckouts.add(new CartCheckout(batch, i, carts.get(i)));
+        }
+
+        synchronized (this) {
+            cartCheckouts.stream()
+                    .filter(CartCheckout::hasMoreChunks)
+                    .forEach(readyCarts::add);
+        }
+        cartCheckouts.stream()
+                .filter(cartCheckout -> cartCheckout.noOfChunks == 0)
+                .forEach(CartCheckout::complete);
+        dispatch();
+
+        return new BulkCheckout(
+                cartCheckouts.stream().map(cartCheckout -> cartCheckout.response).collect(toList()),
+                batch.report);
+    }
+
+    public synchronized int getInFlightValidations() {
+        return inFlightValidations;
+    }
+
+    private void dispatch() {
+        boolean rejected;
+        do {
+            List<ChunkValidation> validations = new ArrayList<>();
+            synchronized (this) {
+                while (inFlightValidations < maxInFlightValidations && !readyCarts.isEmpty()) {
+                    CartCheckout cartCheckout = readyCarts.poll();
+                    if (cartCheckout.response.isDone()) {
+                        continue; // failed already : its remaining chunks would be validated for nothing
+                    }
+                    List<CartItem> chunkItems = cartCheckout.nextChunk();
+                    if (cartCheckout.hasMoreChunks()) {
+                        readyCarts.add(cartCheckout); // back of the line
+                    }
+                    inFlightValidations++;
+                    validations.add(new ChunkValidation(cartCheckout, chunkItems));
+                }
+            }
+            rejected = false;
+            for (ChunkValidation validation : validations) {
+                try {
+                    executorService.execute(validation);
+                } catch (RejectedExecutionException e) {
+                    synchronized (this) {
+                        inFlightValidations--;
+                    }
+                    validation.cartCheckout.chunkFailed(e);
+                    rejected = true;
+                }
+            }
+            // the slots of the rejected validations are free again : hand them to the next carts
+        } while (rejected);
+    }
+
+    private void validate(CartCheckout cartCheckout, List<CartItem> chunkItems) {
+        try {
+            cartCheckout.batch.validationCalls.increment();
+            BitSet invalidItems = priceValidatorService.validate(chunkItems);
+            cartCheckout.chunkValidated(chunkItems, invalidItems);
+        } catch (Throwable e) {
+            // an Error too : the cart must not wait forever for this chunk
+            cartCheckout.chunkFailed(e);
+        } finally {
+            synchronized (this) {
+                inFlightValidations--;
+            }
+            dispatch();
+        }
+    }
+
+    private final class ChunkValidation implements Runnable {
+        private final CartCheckout cartCheckout;
+        private final List<CartItem> chunkItems;
+
+        private ChunkValidation(CartCheckout cartCheckout, List<CartItem> chunkItems) {
+            this.cartCheckout = cartCheckout;
+            this.chunkItems = chunkItems;
+        }
+
+        @Override
+        public void run() {
+            validate(cartCheckout, chunkItems);
+        }
+    }
+
+    private final class CartCheckout {
+        private final Batch batch;
+        private final int index;
+        private final Cart cart;
+        private final int noOfChunks;
+        private final AtomicInteger pendingChunks;
+        private final ConcurrentLinkedQueue<CartItem> priceValidationList = new ConcurrentLinkedQueue<>();
+        private final CompletableFuture<CheckoutResponse> response = new CompletableFuture<>();
+        private int nextItem; // guarded by BulkCheckoutService.this
+
+        private CartCheckout(Batch batch, int index, Cart cart) {
+            this.batch = batch;
+            this.index = index;
+            this.cart = cart;
+            this.noOfChunks = (cart.getCartItemList().size() + chunkSize - 1) / chunkSize;
+            this.pendingChunks = new AtomicInteger(noOfChunks);
+        }
+
+        private boolean hasMoreChunks() {
+            return nextItem < cart.getCartItemList().size();
+        }
+
+        private List<CartItem> nextChunk() {
+            List<CartItem> cartItemList = cart.getCartItemList();
+            int from = nextItem;
+            nextItem = Math.min(from + chunkSize, cartItemList.size());
+            return cartItemList.subList(from, nextItem);
+        }
+
+        private void chunkValidated(List<CartItem> chunkItems, BitSet invalidItems) {
+            for (int i = 0; i < chunkItems.size(); i++) {
+                CartItem cartItem = chunkItems.get(i);
+                cartItem.setExpired(invalidItems.get(i));
+                if (cartItem.isExpired()) {
+                    priceValidationList.add(cartItem);
+                }
+            }
+            if (pendingChunks.decrementAndGet() == 0) {
+                complete();
+            }
+        }
+
+        private void chunkFailed(Throwable e) {
+            if (response.completeExceptionally(e)) {
+                batch.cartCompleted(index, null);
+            }
+        }
+
+        private void complete() {
+            CheckoutResponse checkoutResponse;
+            if (!priceValidationList.isEmpty()) {
+                checkoutResponse = new CheckoutResponse(CheckoutStatus.FAILURE, new ArrayList<>(priceValidationList));
+            } else {
+                CompensatedSum finalRate = new CompensatedSum();
+                cart.getCartItemList().forEach(cartItem -> finalRate.add(cartItem.getQuantity() * cartItem.getRate()));
+                checkoutResponse = new CheckoutResponse(CheckoutStatus.SUCCESS, finalRate.sum());
+            }
+            if (response.complete(checkoutResponse)) {
+                batch.cartCompleted(index, checkoutResponse);
+            }
+        }
+    }
+
+    private static final class Batch {
+        private final long startNanos = System.nanoTime();
+        private final long[] latencyNanos;
+        private final AtomicInteger remainingCarts;
+        private final LongAdder successCount = new LongAdder();
+        private final LongAdder failureCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder validationCalls = new LongAdder();
+        private final CompletableFuture<BulkCheckoutReport> report = new CompletableFuture<>();
+
+        private Batch(int noOfCarts) {
+            this.latencyNanos = new long[noOfCarts];
+            this.remainingCarts = new AtomicInteger(noOfCarts);
+            if (noOfCarts == 0) {
+                report.complete(report());
+            }
+        }
+
+        private void cartCompleted(int index, CheckoutResponse checkoutResponse) {
+            latencyNanos[index] = System.nanoTime() - startNanos;
+            if (checkoutResponse == null) {
+                errorCount.increment();
+            } else if (checkoutResponse.getCheckoutStatus() == CheckoutStatus.SUCCESS) {
+                successCount.increment();
+            } else {
+                failureCount.increment();
+            }
+            // the decrement publishes the latency written above to the thread that builds the report
+            if (remainingCarts.decrementAndGet() == 0) {
+                BulkCheckoutReport bulkCheckoutReport = report();
+                log("Bulk checkout complete : " + bulkCheckoutReport);
+                report.complete(bulkCheckoutReport);
+            }
+        }
+
+        private BulkCheckoutReport report() {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long[] sortedLatencies = latencyNanos.clone();
+            Arrays.sort(sortedLatencies);
+            return BulkCheckoutReport.builder()
+                    .noOfCarts(sortedLatencies.length)
+                    .noOfSuccess(successCount.intValue())
+                    .noOfFailure(failureCount.intValue())
+                    .noOfErrors(errorCount.intValue())
+                    .noOfValidationCalls(validationCalls.sum())
+                    .elapsedMillis(elapsedNanos / 1_000_000)
+                    .cartsPerSecond(sortedLatencies.length * 1e9 / Math.max(elapsedNanos, 1))
+                    .p50LatencyMillis(percentile(sortedLatencies, 0.50) / 1_000_000)
+                    .p99LatencyMillis(percentile(sortedLatencies, 0.99) / 1_000_000)
+                    .maxLatencyMillis(percentile(sortedLatencies, 1.0) / 1_000_000)
+                    .build();
+        }
+
+        private static long percentile(long[] sortedValues, double quantile) {
+            if (sortedValues.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedValues.length) - 1;
+            return sortedValues[Math.max(index, 0)];
+        }
+    }
+}
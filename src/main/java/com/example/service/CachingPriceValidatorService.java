@@ -0,0 +1,159 @@
+package com.example.service;
+
+import com.example.domain.checkout.CartItem;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Caches validation results in front of a {@link PriceValidatorService}, keyed by item id and rate.
+ * <p>
+ * Entries expire {@code ttl} after they were validated. Once the cache holds more than {@code maxEntries}
+ * entries the oldest ones are evicted first. Lookups and inserts only touch a {@link ConcurrentHashMap}
+ * and a lock-free queue, so parallel checkouts never wait on each other.
+ */
+public class CachingPriceValidatorService extends PriceValidatorService {
+
+    private final PriceValidatorService priceValidatorService;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final ConcurrentHashMap<PriceKey, Entry> cache = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger insertionOrderSize = new AtomicInteger();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public CachingPriceValidatorService(PriceValidatorService priceValidatorService, Duration ttl, int maxEntries) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive : " + ttl);
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive : " + maxEntries);
+        }
+        this.priceValidatorService = priceValidatorService;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public boolean isCartItemInvalid(CartItem cartItem) {
+        PriceKey key = PriceKey.of(cartItem);
+        Boolean cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        boolean isInvalid = priceValidatorService.isCartItemInvalid(cartItem);
+        store(key, isInvalid);
+        return isInvalid;
+    }
+
+    /**
+     * Answers the cached items from memory and sends only the misses to the validator, in a single batch.
+     */
+    @Override
+    public BitSet validate(List<CartItem> cartItems) {
+        BitSet invalidItems = new BitSet(cartItems.size());
+        List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < cartItems.size(); i++) {
+            Boolean cached = lookup(PriceKey.of(cartItems.get(i)));
+            if (cached == null) {
+                missIndexes.add(i);
+            } else if (cached) {
+                invalidItems.set(i);
+            }
+        }
+
+        if (!missIndexes.isEmpty()) {
+            List<CartItem> misses = missIndexes.stream().map(cartItems::get).collect(toList());
+            BitSet invalidMisses = priceValidatorService.validate(misses);
+            for (int i = 0; i < misses.size(); i++) {
+                boolean isInvalid = invalidMisses.get(i);
+                store(PriceKey.of(misses.get(i)), isInvalid);
+                if (isInvalid) {
+                    invalidItems.set(missIndexes.get(i));
+                }
+            }
+        }
+        return invalidItems;
+    }
+
+    @Override
+    public Set<Integer> invalidItemIds() {
+        return priceValidatorService.invalidItemIds();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private Boolean lookup(PriceKey key) {
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            if (entry.expiresAt - System.nanoTime() > 0) {
+                hitCount.increment();
+                return entry.isInvalid;
+            }
+            if (cache.remove(key, entry)) {
+                evictionCount.increment();
+            }
+        }
+        missCount.increment();
+        return null;
+    }
+
+    private void store(PriceKey key, boolean isInvalid) {
+        Entry entry = new Entry(key, isInvalid, System.nanoTime() + ttlNanos);
+        cache.put(key, entry);
+        insertionOrder.offer(entry);
+        insertionOrderSize.incrementAndGet();
+
+        // The queue also holds entries that already expired or were replaced, so it is trimmed
+        // as well, to keep its size proportional to maxEntries.
+        while (cache.size() > maxEntries || insertionOrderSize.get() > 2 * maxEntries) {
+            Entry eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            insertionOrderSize.decrementAndGet();
+            if (cache.remove(eldest.key, eldest)) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final PriceKey key;
+        private final boolean isInvalid;
+        private final long expiresAt;
+
+        private Entry(PriceKey key, boolean isInvalid, long expiresAt) {
+            this.key = key;
+            this.isInvalid = isInvalid;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
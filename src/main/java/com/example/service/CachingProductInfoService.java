@@ -0,0 +1,73 @@
+package com.example.service;
+
+import com.example.domain.ProductInfo;
+import com.example.domain.ProductOption;
+import com.example.util.AsyncLoadingCache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Caches product infos in front of a {@link ProductInfoService}, in an {@link AsyncLoadingCache} : frequency-aware
+ * eviction, bounded by the total number of product options cached, with refresh-ahead so that the popular products
+ * are renewed in the background before they expire.
+ * <p>
+ * Every call gets its own copy of the product info and its options, since the aggregation services set the
+ * inventory of the options they are given.
+ */
+public class CachingProductInfoService extends ProductInfoService {
+
+    static ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AsyncLoadingCache<String, ProductInfo> cache;
+
+    public CachingProductInfoService(ProductInfoService productInfoService, long maximumProductOptions,
+                                     Duration expireAfterWrite, Duration refreshAfterWrite) {
+        this.cache = new AsyncLoadingCache<>(
+                productId -> CompletableFuture.supplyAsync(() -> productInfoService.retrieveProductInfo(productId), loadExecutor),
+                maximumProductOptions,
+                productInfo -> Math.max(1, productInfo.getProductOptions().size()),
+                expireAfterWrite, refreshAfterWrite);
+    }
+
+    @Override
+    public ProductInfo retrieveProductInfo(String productId) {
+        return retrieveProductInfoAsync(productId).join();
+    }
+
+    public CompletableFuture<ProductInfo> retrieveProductInfoAsync(String productId) {
+        return cache.get(productId).thenApply(CachingProductInfoService::copyOf);
+    }
+
+    @Override
+    public Map<String, ProductInfo> retrieveProductInfoBatch(List<String> productIds) {
+        List<CompletableFuture<ProductInfo>> productInfos = productIds.stream()
+                .map(this::retrieveProductInfoAsync)
+                .collect(Collectors.toList());
+        Map<String, ProductInfo> productInfoById = new LinkedHashMap<>();
+        for (int i = 0; i < productIds.size(); i++) {
+            productInfoById.put(productIds.get(i), productInfos.get(i).join());
+        }
+        return productInfoById;
+    }
+
+    public AsyncLoadingCache<String, ProductInfo> getCache() {
+        return cache;
+    }
+
+    private static ProductInfo copyOf(ProductInfo productInfo) {
+        List<ProductOption> productOptions = productInfo.getProductOptions().stream()
+                .map(productOption -> new ProductOption(productOption.getProductionOptionId(), productOption.getSize(),
+                        productOption.getColor(), productOption.getPrice(), productOption.getInventory()))
+                .collect(Collectors.toList());
+        return ProductInfo.builder().productId(productInfo.getProductId())
+                .productOptions(productOptions)
+                .build();
+    }
+}
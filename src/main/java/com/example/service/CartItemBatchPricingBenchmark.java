@@ -0,0 +1,62 @@
+package com.example.service;
+
+import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItemBatch;
+import com.example.util.DataSet;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Allocation benchmark of the final price : the boxed {@code reduce} over the {@link Cart} against the primitive
+ * loop over its {@link CartItemBatch}, for a cart of {@code items} items, 1 000 000 by default.
+ * <p>
+ * Each way is warmed up, then run {@code rounds} times, 10 by default, and the bytes allocated by every thread during
+ * the run are logged per round : the batch pricing runs on the common pool, so the current thread alone would miss
+ * most of them. Run it on a quiet JVM, other threads allocating at the same time are counted too.
+ * <pre>
+ * java com.example.service.CartItemBatchPricingBenchmark 1000000 10
+ * </pre>
+ */
+public class CartItemBatchPricingBenchmark {
+
+    public static void main(String[] args) {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        CheckoutService checkoutService = new CheckoutService(new PriceValidatorService());
+        Cart cart = DataSet.createCart(items);
+        CartItemBatch cartItemBatch = CartItemBatch.from(cart);
+
+        String boxed = run("boxed reduce", rounds, () -> checkoutService.calculateFinalPrice_reduce(cart));
+        String batch = run("cart item batch", rounds, () -> checkoutService.calculateFinalPrice(cartItemBatch));
+
+        log(boxed);
+        log(batch);
+    }
+
+    private static String run(String mode, int rounds, DoubleSupplier pricing) {
+        for (int i = 0; i < 5; i++) { // warm up
+            pricing.getAsDouble();
+        }
+        double finalRate = 0;
+        long startNanos = System.nanoTime();
+        long before = allocatedBytes();
+        for (int i = 0; i < rounds; i++) {
+            finalRate = pricing.getAsDouble();
+        }
+        long bytesPerRound = (allocatedBytes() - before) / rounds;
+        long millisPerRound = (System.nanoTime() - startNanos) / 1_000_000 / rounds;
+        return String.format("%s : final rate %.2f, %d bytes allocated and %d ms per round",
+                mode, finalRate, bytesPerRound, millisPerRound);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+}
@@ -2,10 +2,35 @@ package com.example.service;
 
 import com.example.domain.checkout.Cart;
 import com.example.domain.checkout.CartItem;
+import com.example.domain.checkout.CartItemBatch;
 import com.example.domain.checkout.CheckoutResponse;
 import com.example.domain.checkout.CheckoutStatus;
+import com.example.util.CompensatedSum;
+import com.example.util.NamedThreadFactory;
+import com.example.util.OperationTimer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.example.util.CommonUtil.*;
 import static com.example.util.LoggerUtil.log;
@@ -14,28 +39,298 @@ import static java.util.stream.Collectors.toList;
 
 public class CheckoutService {
 
+    // Price validation is latency bound, so the pool is sized for in-flight calls, not for cores.
+    // Override with -Dcheckout.io.threads=<n>
+    static final int IO_THREADS = Integer.getInteger("checkout.io.threads", 100);
+    static ExecutorService ioExecutor = Executors.newFixedThreadPool(IO_THREADS, new NamedThreadFactory("checkout-io"));
+
+    // Pricing blocks have a fixed size, so the partial sums, and the total, do not depend on how the work was split
+    static final int PRICING_BLOCK_SIZE = 4096;
+
     private PriceValidatorService priceValidatorService;
+    private ExecutorService executorService;
 
     public CheckoutService(PriceValidatorService priceValidatorService) {
+        this(priceValidatorService, ioExecutor);
+    }
+
+    public CheckoutService(PriceValidatorService priceValidatorService, ExecutorService executorService) {
         this.priceValidatorService = priceValidatorService;
+        this.executorService = executorService;
     }
 
     public CheckoutResponse checkout(Cart cart) {
 
-        startTimer();
-        List<CartItem> priceValidationList = cart.getCartItemList()
-                //.stream()
-                .parallelStream()
-                .map(cartItem -> {
+        OperationTimer timer = startTimer("CheckoutService.checkout");
+        CheckoutResponse checkoutResponse = checkoutAsync(cart).join();
+        timer.timeTaken();
+
+        return checkoutResponse;
+    }
+
+    /**
+     * Like {@link #checkout(Cart)}, but the stock of every item is first reserved in {@code inventoryStore}, all or
+     * nothing, so that a cart that checks out can be delivered. The reservation is committed if the checkout succeeds
+     * and released if it does not. A cart short of stock fails without being validated, with the items short of
+     * stock as its error list.
+     *
+     * @param productionOptionId the production option every cart item takes its stock from
+     */
+    public CheckoutResponse checkoutAndReserve(Cart cart, InventoryStore inventoryStore,
+                                               ToIntFunction<CartItem> productionOptionId) {
+
+        OperationTimer timer = startTimer("CheckoutService.checkoutAndReserve");
+        if (!inventoryStore.reserveAll(cart, productionOptionId)) {
+            timer.timeTaken();
+            log("Checkout Error : not enough stock");
+            return new CheckoutResponse(CheckoutStatus.FAILURE, itemsOutOfStock(cart, inventoryStore, productionOptionId));
+        }
+
+        CheckoutResponse checkoutResponse;
+        try {
+            checkoutResponse = checkoutAsync(cart).join();
+        } catch (RuntimeException e) {
+            inventoryStore.releaseAll(cart, productionOptionId);
+            throw e;
+        }
+        if (checkoutResponse.getCheckoutStatus() == CheckoutStatus.SUCCESS) {
+            inventoryStore.commitAll(cart, productionOptionId);
+        } else {
+            inventoryStore.releaseAll(cart, productionOptionId);
+        }
+        timer.timeTaken();
+
+        return checkoutResponse;
+    }
+
+    /**
+     * Validates every cart item on the I/O executor, so no caller thread and no common
+     * ForkJoinPool thread is held while the validations are in flight.
+     */
+    public CompletableFuture<CheckoutResponse> checkoutAsync(Cart cart) {
+
+        List<CompletableFuture<CartItem>> validations = cart.getCartItemList()
+                .stream()
+                .map(cartItem -> CompletableFuture.supplyAsync(() -> {
                     boolean isPriceValid = priceValidatorService.isCartItemInvalid(cartItem);
                     cartItem.setExpired(isPriceValid);
                     return cartItem;
+                }, executorService))
+                .collect(toList());
+
+        return CompletableFuture.allOf(validations.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> expiredItems(cart))
+                .thenApply(priceValidationList -> checkoutResponse(cart, priceValidationList));
+    }
+
+    public CheckoutResponse checkoutFailFast(Cart cart) {
+
+        OperationTimer timer = startTimer("CheckoutService.checkoutFailFast");
+        CheckoutResponse checkoutResponse = checkoutFailFastAsync(cart).join();
+        timer.timeTaken();
+
+        return checkoutResponse;
+    }
+
+    /**
+     * Completes with {@link CheckoutStatus#FAILURE} as soon as the first invalid item is found, instead of waiting
+     * for the whole cart. Validations that have not started yet are skipped and the ones in flight are interrupted.
+     * The error list holds the invalid items found up to that point. If a validation throws, the returned future
+     * fails with its exception, and the other validations are skipped or interrupted the same way.
+     */
+    public CompletableFuture<CheckoutResponse> checkoutFailFastAsync(Cart cart) {
+
+        List<CartItem> cartItemList = cart.getCartItemList();
+        CompletableFuture<CheckoutResponse> response = new CompletableFuture<>();
+        if (cartItemList.isEmpty()) {
+            response.complete(checkoutResponse(cart, List.of()));
+            return response;
+        }
+
+        ConcurrentLinkedQueue<CartItem> priceValidationList = new ConcurrentLinkedQueue<>();
+        AtomicInteger pendingValidations = new AtomicInteger(cartItemList.size());
+        List<Future<?>> validations = new ArrayList<>(cartItemList.size());
+
+        for (CartItem cartItem : cartItemList) {
+            validations.add(executorService.submit(() -> {
+                if (response.isDone()) {
+                    return;
+                }
+                try {
+                    boolean isPriceValid = priceValidatorService.isCartItemInvalid(cartItem);
+                    cartItem.setExpired(isPriceValid);
+                    if (isPriceValid) {
+                        priceValidationList.add(cartItem);
+                        if (response.complete(new CheckoutResponse(CheckoutStatus.FAILURE, new ArrayList<>(priceValidationList)))) {
+                            log("Checkout Error");
+                        }
+                    }
+                    if (pendingValidations.decrementAndGet() == 0) {
+                        response.complete(checkoutResponse(cart, new ArrayList<>(priceValidationList)));
+                    }
+                } catch (Throwable e) {
+                    // the Future returned by submit is never read : fail the checkout, which cancels the other items
+                    response.completeExceptionally(e);
+                }
+            }));
+        }
+
+        // registered once every validation is submitted, so the list is no longer being modified
+        response.whenComplete((checkoutResponse, ex) -> validations.forEach(validation -> validation.cancel(true)));
+        return response;
+    }
+
+    /**
+     * Validates the cart in chunks of {@code chunkSize} items, one {@link PriceValidatorService#validate(List)}
+     * round trip per chunk, with the chunks validated concurrently.
+     */
+    public CheckoutResponse checkoutInChunks(Cart cart, int chunkSize) {
+
+        OperationTimer timer = startTimer("CheckoutService.checkoutInChunks");
+        CheckoutResponse checkoutResponse = checkoutInChunksAsync(cart, chunkSize).join();
+        timer.timeTaken();
+
+        return checkoutResponse;
+    }
+
+    public CompletableFuture<CheckoutResponse> checkoutInChunksAsync(Cart cart, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive : " + chunkSize);
+        }
+
+        List<CartItem> cartItemList = cart.getCartItemList();
+        int noOfChunks = (cartItemList.size() + chunkSize - 1) / chunkSize;
+
+        List<CompletableFuture<Void>> validations = IntStream.range(0, noOfChunks)
+                .mapToObj(chunk -> cartItemList.subList(chunk * chunkSize,
+                        Math.min((chunk + 1) * chunkSize, cartItemList.size())))
+                .map(chunkItems -> CompletableFuture.runAsync(() -> {
+                    BitSet invalidItems = priceValidatorService.validate(chunkItems);
+                    for (int i = 0; i < chunkItems.size(); i++) {
+                        chunkItems.get(i).setExpired(invalidItems.get(i));
+                    }
+                }, executorService))
+                .collect(toList());
+
+        return CompletableFuture.allOf(validations.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> expiredItems(cart))
+                .thenApply(priceValidationList -> checkoutResponse(cart, priceValidationList));
+    }
+
+    /**
+     * Checks out a cart that is read line by line from {@code cartFile}, one {@code itemId,itemName,rate,quantity}
+     * item per line, without ever loading the whole cart in memory.
+     *
+     * @see #checkoutStream(Iterator, int, int)
+     */
+    public CheckoutResponse checkoutStream(Path cartFile, int chunkSize, int maxInFlightChunks) throws IOException {
+        try (Stream<String> lines = Files.lines(cartFile)) {
+            Iterator<CartItem> cartItems = lines
+                    .filter(line -> !line.isBlank())
+                    .map(CheckoutService::parseCartItem)
+                    .iterator();
+            return checkoutStream(cartItems, chunkSize, maxInFlightChunks);
+        }
+    }
+
+    public CheckoutResponse checkoutStream(Spliterator<CartItem> cartItems, int chunkSize, int maxInFlightChunks) {
+        return checkoutStream(Spliterators.iterator(cartItems), chunkSize, maxInFlightChunks);
+    }
+
+    /**
+     * Checks out a cart of any size, as its items are pulled from {@code cartItems}.
+     * <p>
+     * Items are validated in chunks of {@code chunkSize} on the I/O executor and priced as they are read. At most
+     * {@code maxInFlightChunks} chunks are in flight : once they are, reading waits for one of them to complete.
+     * Memory therefore stays flat regardless of the cart size : only the invalid items are kept until the end.
+     */
+    public CheckoutResponse checkoutStream(Iterator<CartItem> cartItems, int chunkSize, int maxInFlightChunks) {
+        if (chunkSize < 1 || maxInFlightChunks < 1) {
+            throw new IllegalArgumentException("chunkSize and maxInFlightChunks must be positive : "
+                    + chunkSize + ", " + maxInFlightChunks);
+        }
+
+        OperationTimer timer = startTimer("CheckoutService.checkoutStream");
+        Semaphore inFlightChunks = new Semaphore(maxInFlightChunks);
+        ConcurrentLinkedQueue<CartItem> priceValidationList = new ConcurrentLinkedQueue<>();
+        AtomicReference<Throwable> validationError = new AtomicReference<>();
+        CompensatedSum finalRate = new CompensatedSum();
+
+        while (cartItems.hasNext() && validationError.get() == null) {
+            List<CartItem> chunkItems = new ArrayList<>(chunkSize);
+            while (chunkItems.size() < chunkSize && cartItems.hasNext()) {
+                CartItem cartItem = cartItems.next();
+                chunkItems.add(cartItem);
+                finalRate.add(cartItem.getQuantity() * cartItem.getRate());
+            }
+
+            inFlightChunks.acquireUninterruptibly();
+            CompletableFuture.runAsync(() -> {
+                        BitSet invalidItems = priceValidatorService.validate(chunkItems);
+                        invalidItems.stream().forEach(i -> {
+                            CartItem cartItem = chunkItems.get(i);
+                            cartItem.setExpired(true);
+                            priceValidationList.add(cartItem);
+                        });
+                    }, executorService)
+                    .whenComplete((v, ex) -> {
+                        if (ex != null) {
+                            validationError.compareAndSet(null, ex);
+                        }
+                        inFlightChunks.release();
+                    });
+        }
+
+        // every permit is back once the last chunk is validated
+        inFlightChunks.acquireUninterruptibly(maxInFlightChunks);
+        timer.timeTaken();
+
+        if (validationError.get() != null) {
+            throw new CompletionException(validationError.get());
+        }
+        if (!priceValidationList.isEmpty()) {
+            log("Checkout Error");
+            return new CheckoutResponse(CheckoutStatus.FAILURE, new ArrayList<>(priceValidationList));
+        }
+        log("Checkout Complete and the final rate is " + finalRate.sum());
+        return new CheckoutResponse(CheckoutStatus.SUCCESS, finalRate.sum());
+    }
+
+    private static CartItem parseCartItem(String line) {
+        int afterItemId = line.indexOf(',');
+        int beforeQuantity = line.lastIndexOf(',');
+        int beforeRate = line.lastIndexOf(',', beforeQuantity - 1);
+        if (afterItemId < 0 || beforeRate <= afterItemId) {
+            throw new IllegalArgumentException("Invalid cart item line : " + line);
+        }
+        return new CartItem(
+                Integer.parseInt(line.substring(0, afterItemId).trim()),
+                line.substring(afterItemId + 1, beforeRate),
+                Double.parseDouble(line.substring(beforeRate + 1, beforeQuantity).trim()),
+                Integer.parseInt(line.substring(beforeQuantity + 1).trim()),
+                false);
+    }
+
+    private static List<CartItem> itemsOutOfStock(Cart cart, InventoryStore inventoryStore,
+                                                  ToIntFunction<CartItem> productionOptionId) {
+        Map<Integer, Integer> quantities = InventoryStore.quantities(cart, productionOptionId);
+        return cart.getCartItemList()
+                .stream()
+                .filter(cartItem -> {
+                    int option = productionOptionId.applyAsInt(cartItem);
+                    return inventoryStore.getAvailable(option) < quantities.get(option);
                 })
+                .collect(toList());
+    }
+
+    private List<CartItem> expiredItems(Cart cart) {
+        return cart.getCartItemList()
+                .stream()
                 .filter(CartItem::isExpired)
                 .collect(toList());
-        timeTaken();
-        stopWatchReset();
+    }
 
+    private CheckoutResponse checkoutResponse(Cart cart, List<CartItem> priceValidationList) {
         if (priceValidationList.size() > 0) {
             log("Checkout Error");
             return new CheckoutResponse(CheckoutStatus.FAILURE, priceValidationList);
@@ -57,7 +352,36 @@ public class CheckoutService {
                 //.sum();
     }
 
-    private double calculateFinalPrice_reduce(Cart cart) {
+    /**
+     * Compensated total of a columnar cart, with no allocation per item.
+     * <p>
+     * Every block of {@link #PRICING_BLOCK_SIZE} items is summed into its own {@link CompensatedSum}, in parallel,
+     * straight from the primitive columns. The block totals are then combined in block order, so the result is the same
+     * whatever the parallelism.
+     */
+    public double calculateFinalPrice(CartItemBatch cartItemBatch) {
+        int size = cartItemBatch.size();
+        int noOfBlocks = (size + PRICING_BLOCK_SIZE - 1) / PRICING_BLOCK_SIZE;
+        CompensatedSum[] blockSums = new CompensatedSum[noOfBlocks];
+
+        IntStream.range(0, noOfBlocks)
+                .parallel()
+                .forEach(block -> {
+                    CompensatedSum blockSum = new CompensatedSum();
+                    for (int i = block * PRICING_BLOCK_SIZE, end = Math.min(i + PRICING_BLOCK_SIZE, size); i < end; i++) {
+                        blockSum.add(cartItemBatch.quantity(i) * cartItemBatch.rate(i));
+                    }
+                    blockSums[block] = blockSum;
+                });
+
+        CompensatedSum total = new CompensatedSum();
+        for (CompensatedSum blockSum : blockSums) {
+            total.add(blockSum);
+        }
+        return total.sum();
+    }
+
+    double calculateFinalPrice_reduce(Cart cart) {
         return cart.getCartItemList()
                 .parallelStream()
                 .map(cartItem -> cartItem.getQuantity() * cartItem.getRate())
@@ -0,0 +1,45 @@
+package com.example.service;
+
+import com.example.domain.checkout.CartItem;
+import com.example.util.SingleFlight;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coalesces concurrent validations of the same item at the same rate into a single call to the underlying
+ * {@link PriceValidatorService}. Batch validations are passed through as they are.
+ */
+public class CoalescingPriceValidatorService extends PriceValidatorService {
+
+    private final PriceValidatorService priceValidatorService;
+    private final SingleFlight<PriceKey, Boolean> singleFlight = new SingleFlight<>();
+
+    public CoalescingPriceValidatorService(PriceValidatorService priceValidatorService) {
+        this.priceValidatorService = priceValidatorService;
+    }
+
+    @Override
+    public boolean isCartItemInvalid(CartItem cartItem) {
+        return singleFlight.execute(PriceKey.of(cartItem), () -> priceValidatorService.isCartItemInvalid(cartItem));
+    }
+
+    @Override
+    public BitSet validate(List<CartItem> cartItems) {
+        return priceValidatorService.validate(cartItems);
+    }
+
+    @Override
+    public Set<Integer> invalidItemIds() {
+        return priceValidatorService.invalidItemIds();
+    }
+
+    public long getCallCount() {
+        return singleFlight.getCallCount();
+    }
+
+    public long getCoalescedCount() {
+        return singleFlight.getCoalescedCount();
+    }
+}
@@ -4,6 +4,7 @@ import java.util.concurrent.CompletableFuture;
 
 import static com.example.util.CommonUtil.delay;
 import static com.example.util.LoggerUtil.log;
+import static com.example.util.ManagedBlocking.supplyBlocking;
 
 public class HelloWorldService {
 
@@ -26,7 +27,7 @@ public class HelloWorldService {
     }
 
     public CompletableFuture<String> worldFuture(String input) {
-        return CompletableFuture.supplyAsync(()->{
+        return supplyBlocking(()->{
             delay(1000);
             return input+" world!";
         });
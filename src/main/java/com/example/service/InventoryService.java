@@ -2,33 +2,54 @@ package com.example.service;
 
 import com.example.domain.Inventory;
 import com.example.domain.ProductOption;
+import com.example.util.Retry;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static com.example.util.CommonUtil.delay;
+import static com.example.util.ManagedBlocking.supplyBlocking;
 
 public class InventoryService {
+    static final int DEFAULT_STOCK = 2;
+    // shared by every instance, like the stock of a real inventory backend
+    static InventoryStore inventoryStore = new InventoryStore(DEFAULT_STOCK);
+    static Retry retry = new Retry(3, Duration.ofMillis(50), Duration.ofMillis(500));
+
     public Inventory addInventory(ProductOption productOption) {
         delay(500);
-        return Inventory.builder()
-                .count(2).build();
+        return inventoryStore.inventory(productOption.getProductionOptionId());
 
     }
 
     public CompletableFuture<Inventory> addInventory_CF(ProductOption productOption) {
 
-        return CompletableFuture.supplyAsync(() -> {
+        return retry.execute(() -> supplyBlocking(() -> {
             delay(500);
-            return Inventory.builder()
-                    .count(2).build();
-        });
+            return inventoryStore.inventory(productOption.getProductionOptionId());
+        }));
 
     }
 
     public Inventory retrieveInventory(ProductOption productOption) {
         delay(500);
-        return Inventory.builder()
-                .count(2).build();
+        return inventoryStore.inventory(productOption.getProductionOptionId());
+
+    }
 
+    /**
+     * Retrieves the inventory of every option in one call.
+     *
+     * @return the inventories by production option id
+     */
+    public Map<Integer, Inventory> retrieveInventory(List<ProductOption> productOptions) {
+        delay(500);
+        Map<Integer, Inventory> inventories = new LinkedHashMap<>();
+        productOptions.forEach(productOption -> inventories.put(productOption.getProductionOptionId(),
+                inventoryStore.inventory(productOption.getProductionOptionId())));
+        return inventories;
     }
-}
\ No newline at end of file
+}
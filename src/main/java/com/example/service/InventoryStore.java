@@ -0,0 +1,189 @@
+package com.example.service;
+
+import com.example.domain.Inventory;
+import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-memory stock of every product option, keyed by production option id.
+ * <p>
+ * The available and the reserved count of an option are packed into one {@link AtomicLong}, so a reservation moves
+ * stock from available to reserved with a single compare-and-set and no lock. Threads only contend when they
+ * reserve the same option. An option the store has never seen starts with {@code defaultStock} available.
+ * <p>
+ * The life of a reservation is {@link #reserve} then either {@link #commit}, when the order goes through, or
+ * {@link #release}, when it does not.
+ */
+public class InventoryStore {
+
+    private final ConcurrentHashMap<Integer, AtomicLong> stock = new ConcurrentHashMap<>();
+    private final int defaultStock;
+
+    public InventoryStore(int defaultStock) {
+        this.defaultStock = defaultStock;
+    }
+
+    public void addStock(int productionOptionId, int quantity) {
+        requirePositive(quantity);
+        AtomicLong counts = counts(productionOptionId);
+        long current;
+        long next;
+        do {
+            current = counts.get();
+            next = pack(Math.addExact(available(current), quantity), reserved(current));
+        } while (!counts.compareAndSet(current, next));
+    }
+
+    /**
+     * Moves {@code quantity} from available to reserved, if that much is available.
+     *
+     * @return false, leaving the stock untouched, if less than {@code quantity} is available
+     */
+    public boolean reserve(int productionOptionId, int quantity) {
+        requirePositive(quantity);
+        AtomicLong counts = counts(productionOptionId);
+        long current;
+        long next;
+        do {
+            current = counts.get();
+            if (available(current) < quantity) {
+                return false;
+            }
+            next = pack(available(current) - quantity, Math.addExact(reserved(current), quantity));
+        } while (!counts.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Gives a reservation back : moves {@code quantity} from reserved back to available.
+     */
+    public void release(int productionOptionId, int quantity) {
+        requirePositive(quantity);
+        AtomicLong counts = counts(productionOptionId);
+        long current;
+        long next;
+        do {
+            current = counts.get();
+            requireReserved(productionOptionId, current, quantity);
+            next = pack(available(current) + quantity, reserved(current) - quantity);
+        } while (!counts.compareAndSet(current, next));
+    }
+
+    /**
+     * Completes a reservation : the reserved {@code quantity} leaves the store.
+     */
+    public void commit(int productionOptionId, int quantity) {
+        requirePositive(quantity);
+        AtomicLong counts = counts(productionOptionId);
+        long current;
+        long next;
+        do {
+            current = counts.get();
+            requireReserved(productionOptionId, current, quantity);
+            next = pack(available(current), reserved(current) - quantity);
+        } while (!counts.compareAndSet(current, next));
+    }
+
+    /**
+     * Reserves every quantity, or none : if one option does not have enough stock, the reservations already made
+     * for the others are released.
+     * <p>
+     * While the reservations are rolled back, other threads can briefly see less stock than there is.
+     *
+     * @param quantities the quantity to reserve by production option id
+     * @return false if one option does not have enough stock
+     */
+    public boolean reserveAll(Map<Integer, Integer> quantities) {
+        List<Map.Entry<Integer, Integer>> reserved = new ArrayList<>(quantities.size());
+        for (Map.Entry<Integer, Integer> quantity : quantities.entrySet()) {
+            if (!reserve(quantity.getKey(), quantity.getValue())) {
+                reserved.forEach(entry -> release(entry.getKey(), entry.getValue()));
+                return false;
+            }
+            reserved.add(quantity);
+        }
+        return true;
+    }
+
+    /**
+     * Reserves the quantity of every item of the cart, or none. Items of the same option are added up.
+     * <p>
+     * A cart item is identified by its item id, the store by production option id : {@code productionOptionId} tells
+     * which option every item takes its stock from.
+     */
+    public boolean reserveAll(Cart cart, ToIntFunction<CartItem> productionOptionId) {
+        return reserveAll(quantities(cart, productionOptionId));
+    }
+
+    public void releaseAll(Cart cart, ToIntFunction<CartItem> productionOptionId) {
+        quantities(cart, productionOptionId).forEach(this::release);
+    }
+
+    public void commitAll(Cart cart, ToIntFunction<CartItem> productionOptionId) {
+        quantities(cart, productionOptionId).forEach(this::commit);
+    }
+
+    public int getAvailable(int productionOptionId) {
+        return available(counts(productionOptionId).get());
+    }
+
+    public int getReserved(int productionOptionId) {
+        return reserved(counts(productionOptionId).get());
+    }
+
+    public Inventory inventory(int productionOptionId) {
+        return Inventory.builder()
+                .count(getAvailable(productionOptionId)).build();
+    }
+
+    private AtomicLong counts(int productionOptionId) {
+        AtomicLong counts = stock.get(productionOptionId);
+        return counts != null ? counts
+                : stock.computeIfAbsent(productionOptionId, id -> new AtomicLong(pack(defaultStock, 0)));
+    }
+
+    /**
+     * @return the quantity to reserve by production option id
+     */
+    static Map<Integer, Integer> quantities(Cart cart, ToIntFunction<CartItem> productionOptionId) {
+        // the same order for every cart, so that concurrent carts back off from the same option first
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (CartItem cartItem : cart.getCartItemList()) {
+            quantities.merge(productionOptionId.applyAsInt(cartItem), cartItem.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static long pack(int available, int reserved) {
+        return ((long) reserved << 32) | (available & 0xFFFFFFFFL);
+    }
+
+    private static int available(long counts) {
+        return (int) counts;
+    }
+
+    private static int reserved(long counts) {
+        return (int) (counts >>> 32);
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive : " + quantity);
+        }
+    }
+
+    private static void requireReserved(int productionOptionId, long counts, int quantity) {
+        if (reserved(counts) < quantity) {
+            throw new IllegalStateException("Only " + reserved(counts) + " reserved for option "
+                    + productionOptionId + ", cannot give back " + quantity);
+        }
+    }
+}
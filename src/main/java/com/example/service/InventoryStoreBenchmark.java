@@ -0,0 +1,103 @@
+package com.example.service;
+
+import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+import static com.example.util.CommonUtil.noOfCores;
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Contention benchmark of {@link InventoryStore} : every thread reserves and releases as fast as it can for
+ * {@code inventory.benchmark.seconds} seconds, 5 by default, on
+ * <ul>
+ * <li>a single hot option, every reservation contends for the same counter</li>
+ * <li>1024 options picked at random, little contention</li>
+ * <li>carts of 3 options out of 16, reserved all-or-nothing</li>
+ * </ul>
+ * and logs the reservations per second of each scenario. The stock is checked unchanged at the end.
+ */
+public class InventoryStoreBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : noOfCores();
+        long durationNanos = Long.getLong("inventory.benchmark.seconds", 5) * 1_000_000_000L;
+        List<String> results = new ArrayList<>();
+
+        InventoryStore hotStore = new InventoryStore(1_000_000);
+        results.add(run("hot option", threads, durationNanos, hotStore, 1, thread -> {
+            if (hotStore.reserve(1, 1)) {
+                hotStore.release(1, 1);
+            }
+        }));
+
+        InventoryStore spreadStore = new InventoryStore(1_000_000);
+        results.add(run("1024 options", threads, durationNanos, spreadStore, 1024, thread -> {
+            int productionOptionId = ThreadLocalRandom.current().nextInt(1024);
+            if (spreadStore.reserve(productionOptionId, 1)) {
+                spreadStore.release(productionOptionId, 1);
+            }
+        }));
+
+        InventoryStore cartStore = new InventoryStore(1_000_000);
+        results.add(run("carts of 3 options", threads, durationNanos, cartStore, 16, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Cart cart = new Cart(thread, List.of(
+                    new CartItem(random.nextInt(16), "a", 1.0, 1, false),
+                    new CartItem(random.nextInt(16), "b", 1.0, 1, false),
+                    new CartItem(random.nextInt(16), "c", 1.0, 1, false)));
+            // the benchmark carts sell option n as item n
+            if (cartStore.reserveAll(cart, CartItem::getItemId)) {
+                cartStore.releaseAll(cart, CartItem::getItemId);
+            }
+        }));
+
+        results.forEach(result -> log(result));
+    }
+
+    private static String run(String scenario, int threads, long durationNanos, InventoryStore inventoryStore,
+                              int options, IntConsumer reservation) throws InterruptedException {
+        LongAdder reservations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long deadline = System.nanoTime() + durationNanos;
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int j = 0; j < 1000; j++) {
+                        reservation.accept(thread);
+                    }
+                    count += 1000;
+                }
+                reservations.add(count);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int productionOptionId = 0; productionOptionId < Math.max(options, 2); productionOptionId++) {
+            if (inventoryStore.getAvailable(productionOptionId) != 1_000_000 || inventoryStore.getReserved(productionOptionId) != 0) {
+                throw new IllegalStateException(scenario + " : stock of option " + productionOptionId + " changed");
+            }
+        }
+        return String.format("%s, %d threads : %.1f million reservations/s", scenario, threads,
+                reservations.sum() * 1000.0 / durationNanos);
+    }
+}
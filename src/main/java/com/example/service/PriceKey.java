@@ -0,0 +1,18 @@
+package com.example.service;
+
+import com.example.domain.checkout.CartItem;
+import lombok.Value;
+
+/**
+ * Identifies a price validation : the same item at the same rate always validates the same way.
+ */
+@Value
+class PriceKey {
+
+    int itemId;
+    double rate;
+
+    static PriceKey of(CartItem cartItem) {
+        return new PriceKey(cartItem.getItemId(), cartItem.getRate());
+    }
+}
@@ -2,14 +2,49 @@ package com.example.service;
 
 import com.example.domain.checkout.CartItem;
 
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
 import static com.example.util.CommonUtil.delay;
 
 public class PriceValidatorService {
 
+    private static final Set<Integer> INVALID_ITEM_IDS = Set.of(7, 9, 11);
+
     public boolean isCartItemInvalid(CartItem cartItem){
         int cartId = cartItem.getItemId();
         //log("isCartItemInvalid : "+ cartItem);
         delay(500);
-        return cartId == 7 || cartId == 9 || cartId == 11;
+        return isInvalid(cartId);
+    }
+
+    /**
+     * Validates a whole batch of cart items in a single round trip.
+     *
+     * @return the indexes (positions in {@code cartItems}) of the items that are invalid
+     */
+    public BitSet validate(List<CartItem> cartItems) {
+        delay(500);
+        BitSet invalidItems = new BitSet(cartItems.size());
+        for (int i = 0; i < cartItems.size(); i++) {
+            if (isInvalid(cartItems.get(i).getItemId())) {
+                invalidItems.set(i);
+            }
+        }
+        return invalidItems;
+    }
+
+    /**
+     * The ids of every item currently flagged as invalid, the feed {@link BloomFilterPriceValidatorService}
+     * builds its filter from.
+     */
+    public Set<Integer> invalidItemIds() {
+        delay(500);
+        return INVALID_ITEM_IDS;
+    }
+
+    private boolean isInvalid(int cartId) {
+        return INVALID_ITEM_IDS.contains(cartId);
     }
 }
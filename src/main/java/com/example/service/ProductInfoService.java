@@ -3,7 +3,9 @@ package com.example.service;
 import com.example.domain.ProductInfo;
 import com.example.domain.ProductOption;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.example.util.CommonUtil.delay;
 
@@ -11,10 +13,25 @@ public class ProductInfoService {
 
     public ProductInfo retrieveProductInfo(String productId) {
         delay(1000);
+        return productInfo(productId);
+    }
+
+    /**
+     * Retrieves the product info of every product in one call.
+     */
+    public Map<String, ProductInfo> retrieveProductInfoBatch(List<String> productIds) {
+        delay(1000);
+        Map<String, ProductInfo> productInfos = new LinkedHashMap<>();
+        productIds.forEach(productId -> productInfos.put(productId, productInfo(productId)));
+        return productInfos;
+    }
+
+    // shared by the single and the batch call, so that both answer the same
+    private ProductInfo productInfo(String productId) {
         List<ProductOption> productOptions = List.of(new ProductOption(1, "64GB", "Black", 699.99),
                 new ProductOption(2, "128GB", "Black", 749.99));
         return ProductInfo.builder().productId(productId)
                 .productOptions(productOptions)
                 .build();
     }
-}
\ No newline at end of file
+}
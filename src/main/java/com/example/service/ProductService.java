@@ -3,7 +3,8 @@ package com.example.service;
 import com.example.domain.Product;
 import com.example.domain.ProductInfo;
 import com.example.domain.Review;
-import static com.example.util.CommonUtil.stopWatch;
+import com.example.util.OperationTimer;
+import static com.example.util.CommonUtil.startTimer;
 import static com.example.util.LoggerUtil.log;
 
 public class ProductService {
@@ -16,13 +17,12 @@ public class ProductService {
     }
 
     public Product retrieveProductDetails(String productId) {
-        stopWatch.start();
+        OperationTimer timer = startTimer("ProductService.retrieveProductDetails");
 
         ProductInfo productInfo = productInfoService.retrieveProductInfo(productId); // blocking call
         Review review = reviewService.retrieveReviews(productId); // blocking call
 
-        stopWatch.stop();
-        log("Total Time Taken : "+ stopWatch.getTime());
+        timer.timeTaken();
         return new Product(productId, productInfo, review);
     }
 
@@ -3,39 +3,115 @@ package com.example.service;
 import com.example.domain.Product;
 import com.example.domain.ProductInfo;
 import com.example.domain.Review;
+import com.example.util.AdaptiveConcurrencyLimiter;
+import com.example.util.Deadline;
+import com.example.util.OperationTimer;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.Supplier;
 
-import static com.example.util.CommonUtil.stopWatch;
+import static com.example.util.CommonUtil.startTimer;
+import static com.example.util.FutureUtil.supplyCancellable;
 import static com.example.util.LoggerUtil.log;
 
 public class ProductServiceExecutor {
-    static ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    // time allowed by retrieveProductDetails(String) for the product info and the review together
+    static final Duration DEFAULT_BUDGET = Duration.ofSeconds(3);
+    // not sized from the cores : the limiters bound the calls in flight to each service
+    static ExecutorService executorService = Executors.newCachedThreadPool();
+    // one virtual thread per task : a task blocked in a remote call does not hold on to a platform thread
+    static ExecutorService virtualThreadExecutorService = Executors.newVirtualThreadPerTaskExecutor();
+    static AdaptiveConcurrencyLimiter productInfoLimiter = new AdaptiveConcurrencyLimiter("product-info", 20, 1, 1000, 2.0);
+    static AdaptiveConcurrencyLimiter reviewLimiter = new AdaptiveConcurrencyLimiter("review", 20, 1, 1000, 2.0);
     private ProductInfoService productInfoService;
     private ReviewService reviewService;
+    private final ExecutorService executor;
+    private final AdaptiveConcurrencyLimiter productInfoCalls;
+    private final AdaptiveConcurrencyLimiter reviewCalls;
 
     public ProductServiceExecutor(ProductInfoService productInfoService, ReviewService reviewService) {
+        this(productInfoService, reviewService, executorService);
+    }
+
+    public ProductServiceExecutor(ProductInfoService productInfoService, ReviewService reviewService, ExecutorService executor) {
+        this(productInfoService, reviewService, executor, productInfoLimiter, reviewLimiter);
+    }
+
+    public ProductServiceExecutor(ProductInfoService productInfoService, ReviewService reviewService, ExecutorService executor,
+                                  AdaptiveConcurrencyLimiter productInfoCalls, AdaptiveConcurrencyLimiter reviewCalls) {
         this.productInfoService = productInfoService;
         this.reviewService = reviewService;
+        this.executor = executor;
+        this.productInfoCalls = productInfoCalls;
+        this.reviewCalls = reviewCalls;
+    }
+
+    public static ProductServiceExecutor withVirtualThreads(ProductInfoService productInfoService, ReviewService reviewService) {
+        return new ProductServiceExecutor(productInfoService, reviewService, virtualThreadExecutorService);
     }
 
-    public Product retrieveProductDetails(String productId) throws ExecutionException, InterruptedException, TimeoutException {
-        stopWatch.start();
+    /**
+     * {@link #retrieveProductDetails(String, Duration)} within {@link #DEFAULT_BUDGET}.
+     */
+    public Product retrieveProductDetails(String productId) throws InterruptedException {
+        return retrieveProductDetails(productId, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Waits for the product info and the review for at most {@code budget} in total, and falls back to an empty
+     * product info or review for a call that fails or is still running when the budget is used up. If the caller is
+     * interrupted, both calls are cancelled.
+     * <p>
+     * Each call goes through the {@link AdaptiveConcurrencyLimiter} of its service. A call beyond the limit is not
+     * made, and gets the fallback.
+     */
+    public Product retrieveProductDetails(String productId, Duration budget) throws InterruptedException {
+        OperationTimer timer = startTimer("ProductServiceExecutor.retrieveProductDetails");
+        Deadline deadline = Deadline.after(budget);
 
-        Future<ProductInfo> productInfoFuture =
-                executorService.submit(() -> productInfoService.retrieveProductInfo(productId));
-        Future<Review> reviewFuture =
-                executorService.submit(() -> reviewService.retrieveReviews(productId));
+        Future<ProductInfo> productInfoFuture = productInfoCalls.execute(
+                () -> supplyCancellable(() -> productInfoService.retrieveProductInfo(productId), executor));
+        Future<Review> reviewFuture = reviewCalls.execute(
+                () -> supplyCancellable(() -> reviewService.retrieveReviews(productId), executor));
 
-        ProductInfo productInfo = productInfoFuture.get(2, TimeUnit.SECONDS);
-        Review review = reviewFuture.get();
+        ProductInfo productInfo;
+        Review review;
+        try {
+            productInfo = getBefore(productInfoFuture, deadline,
+                    () -> ProductInfo.builder().productId(productId).productOptions(List.of()).build());
+            review = getBefore(reviewFuture, deadline,
+                    () -> Review.builder().noOfReviews(0).overallRating(0.0).build());
+        } catch (InterruptedException e) {
+            productInfoFuture.cancel(true);
+            reviewFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
 
-        stopWatch.stop();
-        log("Total Time Taken : "+ stopWatch.getTime());
+        timer.timeTaken();
         return new Product(productId, productInfo, review);
     }
 
-    public static void main(String[] args) throws ExecutionException, InterruptedException, TimeoutException {
+    private static <T> T getBefore(Future<T> future, Deadline deadline, Supplier<T> fallback) throws InterruptedException {
+        try {
+            return future.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log("Deadline exceeded, falling back");
+            return fallback.get();
+        } catch (ExecutionException e) {
+            log("Exception is : " + e.getCause().getMessage() + ", falling back");
+            return fallback.get();
+        }
+    }
+
+    public List<AdaptiveConcurrencyLimiter> getConcurrencyLimiters() {
+        return List.of(productInfoCalls, reviewCalls);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
 
         ProductInfoService productInfoService = new ProductInfoService();
         ReviewService reviewService = new ReviewService();
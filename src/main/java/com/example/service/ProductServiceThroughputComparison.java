@@ -0,0 +1,84 @@
+package com.example.service;
+
+import com.example.domain.Product;
+import com.example.util.AdaptiveConcurrencyLimiter;
+import com.example.util.OperationTimer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.example.util.CommonUtil.startTimer;
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Fires {@code calls} concurrent {@link ProductServiceExecutor#retrieveProductDetails(String)} calls, 10 000 by default,
+ * against a platform thread pool and against virtual threads, and logs the throughput of each mode.
+ * <p>
+ * The callers always run on virtual threads, and the concurrency limits are fixed at {@code calls}, so only the
+ * executor the product lookups fan out to differs.
+ * The platform pool has {@code product.platform.threads} threads, 200 by default. Calls that fall back to an empty
+ * product info or review because the default budget of {@code retrieveProductDetails} ran out are counted as
+ * failures.
+ * <pre>
+ * java -Dproduct.platform.threads=200 com.example.service.ProductServiceThroughputComparison 10000
+ * </pre>
+ */
+public class ProductServiceThroughputComparison {
+
+    public static void main(String[] args) {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int platformThreads = Integer.getInteger("product.platform.threads", 200);
+
+        ProductInfoService productInfoService = new ProductInfoService();
+        ReviewService reviewService = new ReviewService();
+
+        ExecutorService platformPool = Executors.newFixedThreadPool(platformThreads);
+        String platform = run("platform pool (" + platformThreads + " threads)",
+                new ProductServiceExecutor(productInfoService, reviewService, platformPool,
+                        fixedLimit("product-info", calls), fixedLimit("review", calls)), calls);
+        platformPool.shutdownNow();
+
+        String virtual = run("virtual threads",
+                new ProductServiceExecutor(productInfoService, reviewService,
+                        ProductServiceExecutor.virtualThreadExecutorService,
+                        fixedLimit("product-info", calls), fixedLimit("review", calls)), calls);
+
+        log(platform);
+        log(virtual);
+    }
+
+    private static AdaptiveConcurrencyLimiter fixedLimit(String name, int limit) {
+        return new AdaptiveConcurrencyLimiter(name, limit, limit, limit, 2.0);
+    }
+
+    private static String run(String mode, ProductServiceExecutor productService, int calls) {
+        LongAdder successes = new LongAdder();
+        LongAdder failures = new LongAdder();
+
+        OperationTimer timer = startTimer("ProductServiceThroughputComparison." + mode);
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < calls; i++) {
+                String productId = "ABC" + i;
+                callers.submit(() -> {
+                    try {
+                        Product product = productService.retrieveProductDetails(productId);
+                        if (product.getProductInfo().getProductOptions().isEmpty()
+                                || product.getReview().getNoOfReviews() == 0) {
+                            failures.increment();
+                        } else {
+                            successes.increment();
+                        }
+                    } catch (Exception e) {
+                        failures.increment();
+                    }
+                });
+            }
+        } // close() waits for every call
+        long elapsedMillis = timer.stop();
+
+        return String.format("%s : %d calls in %d ms, %d succeeded, %d failed, %.1f successful calls/s",
+                mode, calls, elapsedMillis, successes.sum(), failures.sum(),
+                successes.sum() * 1000.0 / Math.max(elapsedMillis, 1));
+    }
+}
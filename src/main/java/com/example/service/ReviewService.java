@@ -2,12 +2,31 @@ package com.example.service;
 
 import com.example.domain.Review;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static com.example.util.CommonUtil.delay;
 
 public class ReviewService {
 
     public Review retrieveReviews(String productId) {
         delay(1000);
+        return review(productId);
+    }
+
+    /**
+     * Retrieves the reviews of every product in one call.
+     */
+    public Map<String, Review> retrieveReviewsBatch(List<String> productIds) {
+        delay(1000);
+        Map<String, Review> reviews = new LinkedHashMap<>();
+        productIds.forEach(productId -> reviews.put(productId, review(productId)));
+        return reviews;
+    }
+
+    // shared by the single and the batch call, so that both answer the same
+    private Review review(String productId) {
         return new Review(200, 4.5);
     }
 }
@@ -5,27 +5,38 @@ import com.example.domain.ProductInfo;
 import com.example.domain.Review;
 import com.example.service.ProductInfoService;
 import com.example.service.ReviewService;
+import com.example.util.OperationTimer;
 
-import static com.example.util.CommonUtil.stopWatch;
+import java.util.concurrent.ThreadFactory;
+
+import static com.example.util.CommonUtil.startTimer;
 import static com.example.util.LoggerUtil.log;
 
 public class ProductServiceThread {
     private ProductInfoService productInfoService;
     private ReviewService reviewService;
+    private final ThreadFactory threadFactory;
 
     public ProductServiceThread(ProductInfoService productInfoService, ReviewService reviewService) {
+        this(productInfoService, reviewService, false);
+    }
+
+    public ProductServiceThread(ProductInfoService productInfoService, ReviewService reviewService, boolean virtualThreads) {
         this.productInfoService = productInfoService;
         this.reviewService = reviewService;
+        this.threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("product-virtual-", 0).factory()
+                : Thread::new;
     }
 
     public Product retrieveProductDetails(String productId) throws InterruptedException {
-        stopWatch.start();
+        OperationTimer timer = startTimer("ProductServiceThread.retrieveProductDetails");
 
         ProductInfoRunnable productInfoRunnable = new ProductInfoRunnable(productId);
-        Thread productInfoThread = new Thread(productInfoRunnable);
+        Thread productInfoThread = threadFactory.newThread(productInfoRunnable);
 
         ReviewRunnable reviewRunnable = new ReviewRunnable(productId);
-        Thread reviewThread = new Thread(reviewRunnable);
+        Thread reviewThread = threadFactory.newThread(reviewRunnable);
 
         productInfoThread.start();
         reviewThread.start();
@@ -38,8 +49,7 @@ public class ProductServiceThread {
         ProductInfo productInfo = productInfoRunnable.getProductInfo();// blocking call
         Review review = reviewRunnable.getReview(); // blocking call
 
-        stopWatch.stop();
-        log("Total Time Taken : "+ stopWatch.getTime());
+        timer.timeTaken();
         return new Product(productId, productInfo, review);
     }
 
@@ -0,0 +1,144 @@
+package com.example.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limits the calls in flight to one downstream service, with a limit tuned from the latency of the calls (AIMD) rather
+ * than sized from the number of cores.
+ * <p>
+ * The no-load latency of the service is taken as the fastest successful call seen, allowed to rise by 1% every 100
+ * successful calls if the service gets slower. A call that fails, or that is more than {@code tolerance} times slower
+ * than the no-load latency, means the service is queueing : the limit is cut by 10%, once per round of calls. Any
+ * other call, made while at least half the limit was in use, raises the limit by {@code 1 / limit}, so about 1 per
+ * round of calls. The limit stays between {@code minLimit} and {@code maxLimit}. Calls beyond the limit are rejected
+ * right away.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int SAMPLE_WINDOW = 100;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private volatile double limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    // guarded by this
+    private long noLoadRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("expected 1 <= minLimit <= initialLimit <= maxLimit : "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Makes the call if the limit allows it. Otherwise the returned future fails right away with a
+     * {@link RejectedExecutionException}. Cancelling the returned future cancels the call.
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        if (!tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Concurrency limit of " + name + " reached : " + getLimit()));
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> inFlightCall = result;
+        CompletableFuture<T> limited = inFlightCall.whenComplete((value, ex) -> release(startNanos, ex == null));
+        limited.whenComplete((value, ex) -> {
+            if (ex != null) {
+                inFlightCall.cancel(true);
+            }
+        });
+        return limited;
+    }
+
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejectedCount.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Gives back the permit of a call started at {@code startNanos}, and adjusts the limit.
+     */
+    public void release(long startNanos, boolean success) {
+        long rttNanos = System.nanoTime() - startNanos;
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            // a failure can be much faster than a real call, a refused connection for instance : only successes
+            // tell the latency of the service
+            if (success) {
+                noLoadRttNanos = Math.min(noLoadRttNanos, rttNanos);
+                windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+                if (++windowSamples == SAMPLE_WINDOW) {
+                    // let the no-load latency drift up by 1% a window at most, if the service really got slower
+                    if (windowMinRttNanos > noLoadRttNanos) {
+                        noLoadRttNanos = Math.min(windowMinRttNanos, (long) (noLoadRttNanos * 1.01));
+                    }
+                    windowMinRttNanos = Long.MAX_VALUE;
+                    windowSamples = 0;
+                }
+            }
+            if (!success || rttNanos > noLoadRttNanos * tolerance) {
+                // the calls already in flight when the limit was cut saw the same congestion : cut once for all of them
+                if (startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseNanos = System.nanoTime();
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimiter{name=" + name + ", limit=" + getLimit() + ", inFlight=" + getInFlight()
+                + ", rejected=" + getRejectedCount() + "}";
+    }
+}
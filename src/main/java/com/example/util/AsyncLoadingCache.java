@@ -0,0 +1,400 @@
+package com.example.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded cache that loads its values asynchronously, with W-TinyLFU admission and eviction and refresh-ahead.
+ * <ul>
+ * <li>Bound : the total weight of the entries, as given by the weigher, stays under {@code maximumWeight}.
+ * With a weigher that returns 1 this bounds the number of entries.</li>
+ * <li>Eviction : new entries go to a small LRU window, 1% of the weight. The ones pushed out of the window are
+ * admitted to the main segmented LRU only if a {@link FrequencySketch} saw them more often than the entry they would
+ * evict, so a burst of one-off keys cannot flush the popular ones. An entry hit again in the main area is protected
+ * from eviction until it falls out of the protected 80%.</li>
+ * <li>Expiry : an entry expires {@code expireAfterWrite} after it was loaded.</li>
+ * <li>Refresh-ahead : the first hit on an entry older than {@code refreshAfterWrite} reloads it in the background and
+ * is served the current value, so a hot entry is renewed before it expires and callers never wait for its load.</li>
+ * </ul>
+ * Concurrent misses on the same key share one load, and a failed load is not cached. Hits read a
+ * {@link ConcurrentHashMap} and only record the access if the eviction lock is free.
+ */
+public class AsyncLoadingCache<K, V> {
+
+    private final Function<K, CompletableFuture<V>> loader;
+    private final long maximumWeight;
+    private final ToIntFunction<V> weigher;
+    private final long expireAfterWriteNanos;
+    private final long refreshAfterWriteNanos;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+    // guarded by evictionLock
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final LinkedHashSet<Node<K, V>> window = new LinkedHashSet<>();
+    private final LinkedHashSet<Node<K, V>> probation = new LinkedHashSet<>();
+    private final LinkedHashSet<Node<K, V>> protectedSegment = new LinkedHashSet<>();
+    private final long maximumWindowWeight;
+    private final long maximumProtectedWeight;
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+
+    public AsyncLoadingCache(Function<K, CompletableFuture<V>> loader, long maximumWeight, ToIntFunction<V> weigher,
+                             Duration expireAfterWrite, Duration refreshAfterWrite) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("maximumWeight must be positive : " + maximumWeight);
+        }
+        this.loader = loader;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.refreshAfterWriteNanos = refreshAfterWrite.toNanos();
+        this.sketch = new FrequencySketch(maximumWeight);
+        this.maximumWindowWeight = Math.max(1, maximumWeight / 100);
+        this.maximumProtectedWeight = (long) ((maximumWeight - maximumWindowWeight) * 0.8);
+    }
+
+    /**
+     * @return the cached value of {@code key}, loading it on a miss. Every caller gets its own copy of the future,
+     * so one caller cancelling it does not affect the others
+     */
+    public CompletableFuture<V> get(K key) {
+        while (true) {
+            long now = System.nanoTime();
+            Node<K, V> node = data.get(key);
+            if (node != null && !node.isExpired(now, expireAfterWriteNanos)) {
+                hitCount.increment();
+                afterRead(node);
+                refreshIfStale(node, now);
+                return node.value.copy();
+            }
+
+            Node<K, V> loading = new Node<>(key, new CompletableFuture<>());
+            boolean installed = node == null
+                    ? data.putIfAbsent(key, loading) == null
+                    : data.replace(key, node, loading);
+            if (!installed) {
+                continue; // another caller got there first, read its entry
+            }
+            missCount.increment();
+            afterWrite(node, loading);
+            load(loading);
+            return loading.value.copy();
+        }
+    }
+
+    public void invalidate(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node != null) {
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void load(Node<K, V> node) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<V> value = node.value;
+        try {
+            loader.apply(node.key).whenComplete((loaded, ex) -> {
+                totalLoadTimeNanos.add(System.nanoTime() - startNanos);
+                if (ex != null || loaded == null) {
+                    loadFailureCount.increment();
+                    discard(node);
+                    value.completeExceptionally(ex != null ? ex : new NullPointerException("null value loaded for " + node.key));
+                    return;
+                }
+                loadSuccessCount.increment();
+                node.writeNanos = System.nanoTime();
+                reweigh(node, loaded);
+                value.complete(loaded);
+            });
+        } catch (RuntimeException e) {
+            loadFailureCount.increment();
+            discard(node);
+            value.completeExceptionally(e);
+        }
+    }
+
+    private void refreshIfStale(Node<K, V> node, long now) {
+        if (!node.isLoaded() || now - node.writeNanos < refreshAfterWriteNanos || !node.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshCount.increment();
+        long startNanos = System.nanoTime();
+        try {
+            loader.apply(node.key).whenComplete((loaded, ex) -> {
+                totalLoadTimeNanos.add(System.nanoTime() - startNanos);
+                if (ex != null || loaded == null) {
+                    // keep serving the current value until it expires
+                    loadFailureCount.increment();
+                } else {
+                    loadSuccessCount.increment();
+                    if (data.get(node.key) == node) {
+                        node.value = CompletableFuture.completedFuture(loaded);
+                        node.writeNanos = System.nanoTime();
+                        reweigh(node, loaded);
+                    }
+                }
+                node.refreshing.set(false);
+            });
+        } catch (RuntimeException e) {
+            loadFailureCount.increment();
+            node.refreshing.set(false);
+        }
+    }
+
+    private void discard(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        // a hit does not wait for the lock : if it is taken, this access is simply not recorded
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(node.key);
+            onAccess(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void afterWrite(Node<K, V> replaced, Node<K, V> node) {
+        evictionLock.lock();
+        try {
+            if (replaced != null) {
+                unlink(replaced);
+            }
+            sketch.increment(node.key);
+            if (data.get(node.key) == node) {
+                node.segment = Segment.WINDOW;
+                window.add(node);
+                windowWeight += node.weight;
+            }
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void reweigh(Node<K, V> node, V value) {
+        evictionLock.lock();
+        try {
+            int weight = Math.max(0, weigher.applyAsInt(value));
+            int delta = weight - node.weight;
+            node.weight = weight;
+            switch (node.segment) {
+                case WINDOW:
+                    windowWeight += delta;
+                    break;
+                case PROBATION:
+                    probationWeight += delta;
+                    break;
+                case PROTECTED:
+                    protectedWeight += delta;
+                    break;
+                default:
+                    return;
+            }
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.addLast(node);
+                break;
+            case PROBATION:
+                // hit again while on probation : promote to protected, demoting the protected LRU if need be
+                probation.remove(node);
+                probationWeight -= node.weight;
+                protectedSegment.addLast(node);
+                protectedWeight += node.weight;
+                node.segment = Segment.PROTECTED;
+                while (protectedWeight > maximumProtectedWeight && protectedSegment.size() > 1) {
+                    Node<K, V> demoted = protectedSegment.removeFirst();
+                    protectedWeight -= demoted.weight;
+                    probation.addLast(demoted);
+                    probationWeight += demoted.weight;
+                    demoted.segment = Segment.PROBATION;
+                }
+                break;
+            case PROTECTED:
+                protectedSegment.addLast(node);
+                break;
+            default:
+        }
+    }
+
+    private void evict() {
+        Deque<Node<K, V>> candidates = new ArrayDeque<>();
+        while (windowWeight > maximumWindowWeight && window.size() > 1) {
+            Node<K, V> candidate = window.removeFirst();
+            windowWeight -= candidate.weight;
+            probation.addLast(candidate);
+            probationWeight += candidate.weight;
+            candidate.segment = Segment.PROBATION;
+            candidates.addLast(candidate);
+        }
+
+        while (windowWeight + probationWeight + protectedWeight > maximumWeight) {
+            Node<K, V> victim = !probation.isEmpty() ? probation.getFirst()
+                    : !protectedSegment.isEmpty() ? protectedSegment.getFirst()
+                    : window.isEmpty() ? null : window.getFirst();
+            if (victim == null) {
+                return;
+            }
+            Node<K, V> candidate = candidates.pollLast();
+            if (candidate != null && candidate != victim && candidate.segment == Segment.PROBATION
+                    && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                // TinyLFU admission : the candidate is not more popular than the victim, so it goes instead
+                victim = candidate;
+            }
+            unlink(victim);
+            data.remove(victim.key, victim);
+            evictionCount.increment();
+            evictionWeight.add(victim.weight);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                probationWeight -= node.weight;
+                break;
+            case PROTECTED:
+                protectedSegment.remove(node);
+                protectedWeight -= node.weight;
+                break;
+            default:
+        }
+        node.segment = Segment.REMOVED;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public double getHitRatio() {
+        long requests = hitCount.sum() + missCount.sum();
+        return requests == 0 ? 1.0 : (double) hitCount.sum() / requests;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    /**
+     * @return the average time of a load or refresh, in nanoseconds
+     */
+    public long getAverageLoadPenaltyNanos() {
+        long loads = loadSuccessCount.sum() + loadFailureCount.sum();
+        return loads == 0 ? 0 : totalLoadTimeNanos.sum() / loads;
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight.sum();
+    }
+
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return windowWeight + probationWeight + protectedWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsyncLoadingCache{size=%d, hitRatio=%.3f, loads=%d, refreshes=%d, evictions=%d, averageLoadPenaltyMillis=%d}",
+                estimatedSize(), getHitRatio(), getLoadSuccessCount(), getRefreshCount(), getEvictionCount(),
+                getAverageLoadPenaltyNanos() / 1_000_000);
+    }
+
+    private enum Segment {WINDOW, PROBATION, PROTECTED, REMOVED, NEW}
+
+    private static final class Node<K, V> {
+        final K key;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile CompletableFuture<V> value;
+        volatile long writeNanos;
+        // guarded by evictionLock
+        int weight;
+        Segment segment = Segment.NEW;
+
+        Node(K key, CompletableFuture<V> value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        boolean isLoaded() {
+            CompletableFuture<V> current = value;
+            return current.isDone() && !current.isCompletedExceptionally();
+        }
+
+        boolean isExpired(long now, long expireAfterWriteNanos) {
+            return isLoaded() && now - writeNanos >= expireAfterWriteNanos;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Batches the keys loaded by concurrent callers into one bulk call.
+ * <p>
+ * The first key of a batch opens a window of {@code window}. The batch is dispatched when the window closes, or as
+ * soon as it holds {@code maxBatchSize} distinct keys, so a key waits at most {@code window} before its bulk call
+ * starts. A key loaded twice within the same batch is only sent once. The window is timed with
+ * {@link CompletableFuture#delayedExecutor}, no thread waits for it.
+ * <p>
+ * A key missing from the result of the bulk call fails with a {@link NoSuchElementException}. A failed bulk call, or
+ * one that returns null, fails every key of the batch.
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<List<K>, Map<K, V>> batchFunction;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Executor executor;
+
+    // guarded by this
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private long generation;
+
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder dedupedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction, Duration window, int maxBatchSize, Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive : " + maxBatchSize);
+        }
+        this.batchFunction = batchFunction;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * @return a future completed with the value of {@code key} once its batch is loaded. Every caller gets its own
+     * copy, so one caller cancelling it does not affect the others
+     */
+    public CompletableFuture<V> load(K key) {
+        loadCount.increment();
+        CompletableFuture<V> future;
+        Map<K, CompletableFuture<V>> fullBatch = null;
+        synchronized (this) {
+            future = pending.get(key);
+            if (future != null) {
+                dedupedCount.increment();
+                return future.copy();
+            }
+            future = new CompletableFuture<>();
+            pending.put(key, future);
+            if (pending.size() == 1) {
+                long batchGeneration = generation;
+                CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS, executor)
+                        .execute(() -> flush(batchGeneration));
+            }
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future.copy();
+    }
+
+    private void flush(long batchGeneration) {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            // the batch this window was opened for was already dispatched full
+            if (generation != batchGeneration || pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+
+    private Map<K, CompletableFuture<V>> takePending() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        generation++;
+        return batch;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        batchCount.increment();
+        CompletableFuture.supplyAsync(() -> batchFunction.apply(new ArrayList<>(batch.keySet())), executor)
+                .whenComplete((values, ex) -> {
+                    Throwable failure = ex != null ? ex
+                            : values == null ? new IllegalStateException("Bulk call returned no result for " + batch.keySet())
+                            : null;
+                    batch.forEach((key, future) -> {
+                        if (failure != null) {
+                            future.completeExceptionally(failure);
+                        } else {
+                            complete(future, key, values);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Completes {@code future} from the result of the bulk call. A key that cannot be read from the result fails on
+     * its own, without stranding the other keys of the batch.
+     */
+    private void complete(CompletableFuture<V> future, K key, Map<K, V> values) {
+        try {
+            if (values.containsKey(key)) {
+                future.complete(values.get(key));
+            } else {
+                future.completeExceptionally(new NoSuchElementException("No value loaded for " + key));
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public long getDedupedCount() {
+        return dedupedCount.sum();
+    }
+
+    /**
+     * @return the bulk calls dispatched, one per batch
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount.sum();
+        return batches == 0 ? 0 : (double) (loadCount.sum() - dedupedCount.sum()) / batches;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchLoader{loads=" + getLoadCount() + ", deduped=" + getDedupedCount() + ", batches=" + getBatchCount() + "}";
+    }
+}
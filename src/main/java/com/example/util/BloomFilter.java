@@ -0,0 +1,96 @@
+package com.example.util;
+
+/**
+ * Compact probabilistic set of ints : {@link #mightContain(int)} never returns false for a value that was put, and
+ * returns true for a value that was not put with about the configured false positive rate.
+ * <p>
+ * The filter takes about {@code -n * ln(p) / ln(2)^2} bits for {@code n} values at false positive rate {@code p},
+ * around 1.2 bytes per value at 1%. Populate it before publishing it to other threads : lookups do not synchronize.
+ * <p>
+ * With a cap on its size, the filter keeps the rate only up to {@code maxBits * ln(2)^2 / -ln(p)} values. Past that
+ * the rate at {@code m} bits for {@code n} values is about {@code 0.6185^(m/n)} : 1% at 9.6 bits per value, 10% at
+ * 4.8, 50% at 1.44. See {@link #expectedFalsePositiveRate(int)}.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.bits = new long[(int) ((numBits + 63) / 64)];
+        this.numBits = bits.length * 64L;
+        this.numHashes = numHashes;
+    }
+
+    public static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        return create(expectedInsertions, falsePositiveRate, Integer.MAX_VALUE * 64L);
+    }
+
+    /**
+     * Like {@link #create(int, double)}, with at most {@code maxBits} bits : past the number of values that fit at
+     * {@code falsePositiveRate}, the rate rises instead of the size.
+     */
+    public static BloomFilter create(int expectedInsertions, double falsePositiveRate, long maxBits) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1 : " + falsePositiveRate);
+        }
+        if (maxBits < 64) {
+            throw new IllegalArgumentException("maxBits must be at least 64 : " + maxBits);
+        }
+        int n = Math.max(expectedInsertions, 1);
+        long numBits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        numBits = Math.min(numBits, maxBits);
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        return new BloomFilter(numBits, numHashes);
+    }
+
+    public void put(int value) {
+        long hash = mix(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = Math.floorMod(hash1 + (long) i * hash2, numBits);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(int value) {
+        long hash = mix(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = Math.floorMod(hash1 + (long) i * hash2, numBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * @return the false positive rate of this filter once {@code insertions} values are put
+     */
+    public double expectedFalsePositiveRate(int insertions) {
+        return Math.pow(1 - Math.exp(-(double) numHashes * insertions / numBits), numHashes);
+    }
+
+    // MurmurHash3 finalizer : spreads the bits of consecutive ids over the whole 64 bits
+    private static long mix(int value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
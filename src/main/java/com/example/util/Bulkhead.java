@@ -0,0 +1,66 @@
+package com.example.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated pool of {@code maxConcurrentCalls} threads with a queue of {@code maxQueuedCalls} for the calls to one
+ * downstream service. When the service slows down, its calls pile up in its own bulkhead only, and the calls beyond
+ * the queue are rejected right away instead of starving the other services of threads.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrentCalls, int maxQueuedCalls) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxQueuedCalls), new NamedThreadFactory("bulkhead-" + name),
+                (runnable, pool) -> {
+                    rejectedCount.increment();
+                    throw new RejectedExecutionException("Bulkhead " + name + " is full");
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the call in the bulkhead. The returned future fails with a {@link RejectedExecutionException} if the
+     * bulkhead is full, and cancelling it interrupts the call.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return FutureUtil.supplyCancellable(call, executor);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{name=" + name + ", active=" + getActiveCount() + ", queued=" + getQueuedCount()
+                + ", rejected=" + getRejectedCount() + "}";
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Stops calling a downstream service that fails or is slow, and answers with the fallback instead.
+ * <ul>
+ * <li>CLOSED : calls go through, and the outcome of the last {@code slidingWindowSize} calls is recorded. Once at
+ * least half the window is recorded, the breaker opens if the share of failed calls reaches
+ * {@code failureRateThreshold}, or the share of calls slower than {@code slowCallDuration} reaches
+ * {@code slowCallRateThreshold}.</li>
+ * <li>OPEN : every call gets the fallback right away, without running or taking a thread, until
+ * {@code waitDurationInOpenState} has passed.</li>
+ * <li>HALF_OPEN : a tenth of the window, at least one call, goes through as a trial. The breaker closes again if the
+ * trial calls stay under both thresholds, and opens again otherwise. Trial calls that have not all completed after
+ * {@code waitDurationInOpenState} are taken as failed, and the breaker opens again rather than waiting for them.</li>
+ * </ul>
+ * The state and the time it was entered change together, in a single atomic update.
+ */
+public class CircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long waitDurationInOpenStateNanos;
+    private final int minimumNumberOfCalls;
+    private final int permittedCallsInHalfOpenState;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(new Status(State.CLOSED, System.nanoTime()));
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    // guarded by this
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private final LongAdder notPermittedCount = new LongAdder();
+
+    public CircuitBreaker(String name, double failureRateThreshold, double slowCallRateThreshold,
+                          Duration slowCallDuration, int slidingWindowSize, Duration waitDurationInOpenState) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = slowCallDuration.toNanos();
+        this.waitDurationInOpenStateNanos = waitDurationInOpenState.toNanos();
+        this.outcomes = new byte[slidingWindowSize];
+        this.minimumNumberOfCalls = Math.max(1, slidingWindowSize / 2);
+        this.permittedCallsInHalfOpenState = Math.max(1, slidingWindowSize / 10);
+    }
+
+    /**
+     * Makes the call if the breaker lets it through, and answers with {@code fallback} if it does not, or if the
+     * call fails.
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call, Supplier<T> fallback) {
+        if (!tryAcquirePermission()) {
+            notPermittedCount.increment();
+            return CompletableFuture.completedFuture(fallback.get());
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.handle((value, ex) -> {
+            onResult(System.nanoTime() - startNanos, ex);
+            if (ex != null) {
+                log("Circuit breaker " + name + " falling back after : " + ex);
+                return fallback.get();
+            }
+            return value;
+        });
+    }
+
+    public boolean tryAcquirePermission() {
+        Status current = status.get();
+        long nowNanos = System.nanoTime();
+        switch (current.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowNanos - current.sinceNanos < waitDurationInOpenStateNanos) {
+                    return false;
+                }
+                if (status.compareAndSet(current, new Status(State.HALF_OPEN, nowNanos))) {
+                    synchronized (this) {
+                        reset();
+                    }
+                    halfOpenPermits.set(permittedCallsInHalfOpenState);
+                    log("Circuit breaker " + name + " is HALF_OPEN");
+                }
+                return tryAcquirePermission();
+            default:
+                if (halfOpenPermits.getAndUpdate(permits -> Math.max(0, permits - 1)) > 0) {
+                    return true;
+                }
+                if (nowNanos - current.sinceNanos >= waitDurationInOpenStateNanos) {
+                    // the trial calls hang : open again, the next trial gets fresh permits
+                    synchronized (this) {
+                        transition(State.HALF_OPEN, State.OPEN);
+                    }
+                }
+                return false;
+        }
+    }
+
+    public void onResult(long durationNanos, Throwable error) {
+        byte outcome = error != null ? FAILURE : durationNanos >= slowCallDurationNanos ? SLOW : SUCCESS;
+        State current = status.get().state;
+        if (current == State.OPEN) {
+            return; // a call that started before the breaker opened
+        }
+        synchronized (this) {
+            record(outcome);
+            if (current == State.HALF_OPEN) {
+                if (recorded >= permittedCallsInHalfOpenState) {
+                    transition(State.HALF_OPEN, isOverThreshold() ? State.OPEN : State.CLOSED);
+                }
+            } else if (recorded >= minimumNumberOfCalls && isOverThreshold()) {
+                transition(State.CLOSED, State.OPEN);
+            }
+        }
+    }
+
+    // guarded by this
+    private void record(byte outcome) {
+        if (recorded == outcomes.length) {
+            byte oldest = outcomes[next];
+            failures -= oldest == FAILURE ? 1 : 0;
+            slowCalls -= oldest == SLOW ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        failures += outcome == FAILURE ? 1 : 0;
+        slowCalls += outcome == SLOW ? 1 : 0;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private boolean isOverThreshold() {
+        return (double) failures / recorded >= failureRateThreshold
+                || (double) slowCalls / recorded >= slowCallRateThreshold;
+    }
+
+    private void transition(State from, State to) {
+        Status current = status.get();
+        if (current.state == from && status.compareAndSet(current, new Status(to, System.nanoTime()))) {
+            log("Circuit breaker " + name + " is " + to + ", failure rate " + getFailureRate()
+                    + ", slow call rate " + getSlowCallRate());
+            reset();
+        }
+    }
+
+    private void reset() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    public State getState() {
+        return status.get().state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return recorded == 0 ? 0 : (double) slowCalls / recorded;
+    }
+
+    /**
+     * @return the calls answered with the fallback without being made, because the breaker was open
+     */
+    public long getNotPermittedCount() {
+        return notPermittedCount.sum();
+    }
+
+    private static final class Status {
+        final State state;
+        final long sinceNanos;
+
+        Status(State state, long sinceNanos) {
+            this.state = state;
+            this.sinceNanos = sinceNanos;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{name=" + name + ", state=" + getState() + ", notPermitted=" + getNotPermittedCount() + "}";
+    }
+}
@@ -1,14 +1,10 @@
 package com.example.util;
 
-import org.apache.commons.lang3.time.StopWatch;
-
 import static com.example.util.LoggerUtil.log;
 import static java.lang.Thread.sleep;
 
 public class CommonUtil {
 
-    public static StopWatch stopWatch = new StopWatch();
-
     public static void delay(long delayMilliSeconds)  {
         try{
             sleep(delayMilliSeconds);
@@ -23,20 +19,17 @@ public class CommonUtil {
         return s.toUpperCase();
     }
 
-    public static void startTimer(){
-        stopWatchReset();
-        stopWatch.start();
-    }
-
-    public static void timeTaken(){
-        stopWatch.stop();
-        log("Total Time Taken : " +stopWatch.getTime());
-    }
-
-    public static void stopWatchReset(){
-        stopWatch.reset();
+    /**
+     * Starts timing one invocation of {@code operation}. Stop it with {@link OperationTimer#timeTaken()}.
+     */
+    public static OperationTimer startTimer(String operation){
+        return LatencyMetrics.startTimer(operation);
     }
 
+    /**
+     * For sizing CPU-bound work. Calls to a downstream service are bounded by an {@link AdaptiveConcurrencyLimiter}
+     * instead, the right number of them depends on its latency, not on the cores.
+     */
     public static  int noOfCores(){
         return Runtime.getRuntime().availableProcessors();
     }
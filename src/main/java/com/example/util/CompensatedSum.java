@@ -0,0 +1,34 @@
+package com.example.util;
+
+/**
+ * Neumaier (improved Kahan) summation : keeps the low order bits lost by every addition in a separate
+ * compensation term, so long sums of doubles do not drift with the number and order of the terms.
+ * <p>
+ * Not thread safe : use one instance per thread, then {@link #add(CompensatedSum) combine} them.
+ */
+public class CompensatedSum {
+
+    private double sum;
+    private double compensation;
+
+    public CompensatedSum add(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - t) + value;
+        } else {
+            compensation += (value - t) + sum;
+        }
+        sum = t;
+        return this;
+    }
+
+    public CompensatedSum add(CompensatedSum other) {
+        add(other.sum);
+        compensation += other.compensation;
+        return this;
+    }
+
+    public double sum() {
+        return sum + compensation;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.util;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which a request must complete. Created once per request and handed to every downstream call,
+ * so each call only gets the budget that is left rather than a fixed timeout of its own.
+ */
+public final class Deadline {
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * @return the time left, never negative
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public long remainingMillis() {
+        return remaining().toMillis();
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remaining() + "}";
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.util;
+
+/**
+ * Count-min sketch of how often keys were seen recently, used by {@link AsyncLoadingCache} to admit a new entry
+ * only if it is seen more often than the entry it would evict.
+ * <p>
+ * Every key has a 4 bit counter in each of 4 rows, and its frequency is the smallest of the 4.
+ * Once {@code 10 * width} keys are counted, every counter is halved, so that keys that were popular a while ago
+ * fade out. Not thread-safe.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int widthMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long maximumSize) {
+        int width = Integer.highestOneBit((int) Math.min(Math.max(maximumSize, 16), 1 << 24) - 1) << 1;
+        this.widthMask = width - 1;
+        this.table = new long[width * 4 / 16];
+        this.sampleSize = 10 * width;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int counter = counterIndex(hash, row);
+            int index = counter >>> 4;
+            int shift = (counter & 15) << 2;
+            if (((table[index] >>> shift) & 0xfL) < 15) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for (int row = 0; row < 4; row++) {
+            int counter = counterIndex(hash, row);
+            frequency = Math.min(frequency, (int) ((table[counter >>> 4] >>> ((counter & 15) << 2)) & 0xfL));
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counterIndex(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * (widthMask + 1) + ((int) h & widthMask);
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
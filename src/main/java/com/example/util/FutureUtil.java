@@ -0,0 +1,240 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.example.util.LoggerUtil.log;
+
+public class FutureUtil {
+
+    @FunctionalInterface
+    public interface Function3<A, B, C, R> {
+        R apply(A a, B b, C c);
+    }
+
+    @FunctionalInterface
+    public interface Function4<A, B, C, D, R> {
+        R apply(A a, B b, C c, D d);
+    }
+
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier, java.util.concurrent.Executor)}, but cancelling the returned
+     * future, or completing it exceptionally, for instance through {@link CompletableFuture#orTimeout}, interrupts
+     * the task if it is still running.
+     */
+    public static <T> CompletableFuture<T> supplyCancellable(Supplier<T> supplier, ExecutorService executorService) {
+        CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executorService.submit(() -> {
+                if (completableFuture.isDone()) {
+                    return;
+                }
+                try {
+                    completableFuture.complete(supplier.get());
+                } catch (Throwable e) {
+                    completableFuture.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            completableFuture.completeExceptionally(e);
+            return completableFuture;
+        }
+        completableFuture.whenComplete((result, ex) -> {
+            if (ex != null) {
+                task.cancel(true);
+            }
+        });
+        return completableFuture;
+    }
+
+    /**
+     * Bounds {@code completableFuture} by what is left of {@code deadline} and replaces a timeout or a failure with
+     * {@code fallback}. The timeout is scheduled on the JDK's shared delay scheduler, so no thread waits for it.
+     * A future created by {@link #supplyCancellable} is interrupted when it times out.
+     */
+    public static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> completableFuture, Deadline deadline,
+                                                        Supplier<T> fallback) {
+        return completableFuture
+                .orTimeout(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS)
+                .exceptionally(ex -> {
+                    log("Falling back after : " + ex);
+                    return fallback.get();
+                });
+    }
+
+    /**
+     * Completes with the results of {@code futures}, in order, as soon as the last one completes. Each result is
+     * stored as its future completes, so no second pass joins them.
+     * <p>
+     * Fails as soon as one of them fails. Then, or when the returned future is cancelled, the futures still running
+     * are cancelled : a future created by {@link #supplyCancellable} interrupts its task.
+     */
+    public static <T> CompletableFuture<List<T>> allAsList(List<? extends CompletableFuture<? extends T>> futures) {
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        if (futures.isEmpty()) {
+            result.complete(List.of());
+            return result;
+        }
+        AtomicReferenceArray<T> values = new AtomicReferenceArray<>(futures.size());
+        AtomicInteger pending = new AtomicInteger(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            int index = i;
+            futures.get(i).whenComplete((value, ex) -> {
+                if (ex != null) {
+                    result.completeExceptionally(unwrap(ex));
+                } else {
+                    values.set(index, value);
+                    if (pending.decrementAndGet() == 0) {
+                        result.complete(toList(values));
+                    }
+                }
+            });
+        }
+        cancelOnFailure(result, futures);
+        return result;
+    }
+
+    /**
+     * Combines the results of {@code a} and {@code b} with {@code zipper} once both completed. Like
+     * {@link #allAsList}, fails as soon as one of them fails, and then, or when the returned future is cancelled,
+     * cancels the other.
+     */
+    public static <A, B, R> CompletableFuture<R> zip(CompletableFuture<A> a, CompletableFuture<B> b,
+                                                     BiFunction<? super A, ? super B, ? extends R> zipper) {
+        return failFast(a.thenCombine(b, zipper), List.of(a, b));
+    }
+
+    /**
+     * Like {@link #zip(CompletableFuture, CompletableFuture, BiFunction)}, for three futures.
+     */
+    public static <A, B, C, R> CompletableFuture<R> zip(CompletableFuture<A> a, CompletableFuture<B> b,
+                                                        CompletableFuture<C> c,
+                                                        Function3<? super A, ? super B, ? super C, ? extends R> zipper) {
+        CompletableFuture<R> zipped = a
+                .thenCombine(b, (valueA, valueB) -> (Function<C, R>) valueC -> zipper.apply(valueA, valueB, valueC))
+                .thenCombine(c, Function::apply);
+        return failFast(zipped, List.of(a, b, c));
+    }
+
+    /**
+     * Like {@link #zip(CompletableFuture, CompletableFuture, BiFunction)}, for four futures.
+     */
+    public static <A, B, C, D, R> CompletableFuture<R> zip(CompletableFuture<A> a, CompletableFuture<B> b,
+                                                           CompletableFuture<C> c, CompletableFuture<D> d,
+                                                           Function4<? super A, ? super B, ? super C, ? super D, ? extends R> zipper) {
+        CompletableFuture<R> zipped = a
+                .thenCombine(b, (valueA, valueB) -> (BiFunction<C, D, R>) (valueC, valueD) ->
+                        zipper.apply(valueA, valueB, valueC, valueD))
+                .thenCombine(c, (zipperCD, valueC) -> (Function<D, R>) valueD -> zipperCD.apply(valueC, valueD))
+                .thenCombine(d, Function::apply);
+        return failFast(zipped, List.of(a, b, c, d));
+    }
+
+    /**
+     * Completes with the first of {@code futures} to succeed, and cancels the others. Fails only once they all
+     * failed, with the failure of the first one, the others attached as suppressed exceptions.
+     */
+    public static <T> CompletableFuture<T> firstSuccessful(List<? extends CompletableFuture<? extends T>> futures) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (futures.isEmpty()) {
+            result.completeExceptionally(new NoSuchElementException("No future to wait for"));
+            return result;
+        }
+        AtomicReferenceArray<Throwable> failures = new AtomicReferenceArray<>(futures.size());
+        AtomicInteger pending = new AtomicInteger(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            int index = i;
+            futures.get(i).whenComplete((value, ex) -> {
+                if (ex == null) {
+                    result.complete(value);
+                } else {
+                    failures.set(index, unwrap(ex));
+                    if (pending.decrementAndGet() == 0) {
+                        Throwable failure = failures.get(0);
+                        for (int j = 1; j < failures.length(); j++) {
+                            if (failures.get(j) != failure) {
+                                failure.addSuppressed(failures.get(j));
+                            }
+                        }
+                        result.completeExceptionally(failure);
+                    }
+                }
+            });
+        }
+        result.whenComplete((value, ex) -> futures.forEach(future -> future.cancel(true)));
+        return result;
+    }
+
+    /**
+     * Runs every contender on {@code executorService} and completes with the first result. Failures are ignored until
+     * every contender has failed, see {@link #firstSuccessful}. Once the race is decided, the contenders still running
+     * are interrupted, so they give their threads, and their downstream calls, back early.
+     */
+    public static <T> CompletableFuture<T> race(List<? extends Supplier<? extends T>> contenders,
+                                                ExecutorService executorService) {
+        List<CompletableFuture<? extends T>> futures = new ArrayList<>(contenders.size());
+        for (Supplier<? extends T> contender : contenders) {
+            futures.add(supplyCancellable(contender, executorService));
+        }
+        return firstSuccessful(futures);
+    }
+
+    /**
+     * {@code combined} only fails once all of {@code futures} completed : fail as soon as one of them fails instead.
+     */
+    private static <R> CompletableFuture<R> failFast(CompletableFuture<R> combined,
+                                                     List<? extends CompletableFuture<?>> futures) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        combined.whenComplete((value, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(unwrap(ex));
+            } else {
+                result.complete(value);
+            }
+        });
+        futures.forEach(future -> future.whenComplete((value, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(unwrap(ex));
+            }
+        }));
+        cancelOnFailure(result, futures);
+        return result;
+    }
+
+    private static void cancelOnFailure(CompletableFuture<?> result, List<? extends CompletableFuture<?>> futures) {
+        result.whenComplete((value, ex) -> {
+            if (ex != null) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        });
+    }
+
+    private static <T> List<T> toList(AtomicReferenceArray<T> values) {
+        Object[] array = new Object[values.length()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        @SuppressWarnings("unchecked")
+        List<T> list = (List<T>) Arrays.asList(array);
+        return Collections.unmodifiableList(list);
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
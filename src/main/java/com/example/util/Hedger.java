@@ -0,0 +1,174 @@
+package com.example.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests : if a call has not completed after the hedge delay, a backup call is fired, the first successful
+ * call wins and the other one is cancelled.
+ * <p>
+ * The delay is either fixed or learned as a percentile, typically the 95th, of the latencies of successful calls,
+ * so that only about 5% of the calls are hedged. The backup is scheduled with
+ * {@link CompletableFuture#delayedExecutor}, no thread waits for the delay to expire.
+ * <p>
+ * The call fails only when every fired call fails.
+ */
+public class Hedger {
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final ExecutorService executorService;
+    private final Duration fixedDelay;
+    private final double quantile;
+    private final Duration initialDelay;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedgesFired = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private Hedger(ExecutorService executorService, Duration fixedDelay, double quantile, Duration initialDelay) {
+        this.executorService = executorService;
+        this.fixedDelay = fixedDelay;
+        this.quantile = quantile;
+        this.initialDelay = initialDelay;
+    }
+
+    /**
+     * Hedges every call still running after {@code delay}.
+     */
+    public static Hedger fixed(Duration delay, ExecutorService executorService) {
+        return new Hedger(executorService, delay, 0, delay);
+    }
+
+    /**
+     * Hedges every call still running after the {@code quantile} of the latencies observed so far, and after
+     * {@code initialDelay} until enough latencies are recorded.
+     */
+    public static Hedger adaptive(double quantile, Duration initialDelay, ExecutorService executorService) {
+        if (quantile <= 0 || quantile >= 1) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1 : " + quantile);
+        }
+        return new Hedger(executorService, null, quantile, initialDelay);
+    }
+
+    public <T> CompletableFuture<T> hedge(Supplier<T> supplier) {
+        calls.increment();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        AtomicBoolean won = new AtomicBoolean();
+        AtomicReference<CompletableFuture<T>> backup = new AtomicReference<>();
+
+        CompletableFuture<T> primary = attempt(supplier, result, won, outstanding, false);
+
+        CompletableFuture.runAsync(() -> {
+            if (result.isDone() || !incrementIfPositive(outstanding)) {
+                return;
+            }
+            hedgesFired.increment();
+            backup.set(attempt(supplier, result, won, outstanding, true));
+            if (result.isDone()) {
+                backup.get().cancel(true);
+            }
+        }, CompletableFuture.delayedExecutor(currentDelay().toNanos(), TimeUnit.NANOSECONDS));
+
+        result.whenComplete((value, ex) -> {
+            // the loser, and both calls if the caller cancelled
+            primary.cancel(true);
+            CompletableFuture<T> backupCall = backup.get();
+            if (backupCall != null) {
+                backupCall.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private <T> CompletableFuture<T> attempt(Supplier<T> supplier, CompletableFuture<T> result, AtomicBoolean won,
+                                             AtomicInteger outstanding, boolean isBackup) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> call = FutureUtil.supplyCancellable(supplier, executorService);
+        call.whenComplete((value, ex) -> {
+            if (ex == null) {
+                latencies.record(System.nanoTime() - startNanos);
+                // counted before completing, so a caller woken by the result sees the win
+                if (!result.isDone() && won.compareAndSet(false, true)) {
+                    if (isBackup) {
+                        hedgeWins.increment();
+                    }
+                    result.complete(value);
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(ex);
+            }
+        });
+        return call;
+    }
+
+    private static boolean incrementIfPositive(AtomicInteger counter) {
+        int current;
+        do {
+            current = counter.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * @return the delay after which the next call is hedged
+     */
+    public Duration currentDelay() {
+        if (fixedDelay != null) {
+            return fixedDelay;
+        }
+        if (latencies.getCount() < MIN_SAMPLES) {
+            return initialDelay;
+        }
+        return Duration.ofNanos(latencies.percentile(quantile));
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * @return the backup calls, that is the extra calls hedging sent to the backend
+     */
+    public long getHedgesFired() {
+        return hedgesFired.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * @return the share of the calls that were hedged, which is also the extra load hedging puts on the backend
+     */
+    public double getHedgeRate() {
+        long callCount = calls.sum();
+        return callCount == 0 ? 0 : (double) hedgesFired.sum() / callCount;
+    }
+
+    /**
+     * @return the share of the hedges whose backup call completed first
+     */
+    public double getWinRate() {
+        long hedges = hedgesFired.sum();
+        return hedges == 0 ? 0 : (double) hedgeWins.sum() / hedges;
+    }
+
+    @Override
+    public String toString() {
+        return "Hedger{calls=" + getCallCount() + ", hedgesFired=" + getHedgesFired() + ", hedgeWins=" + getHedgeWins()
+                + ", delay=" + currentDelay() + "}";
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram, in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets : every power of two is split in 32 sub-buckets, so any recorded value
+ * is reported within about 3% of its actual value. Recording is a couple of atomic increments, with no lock and no
+ * allocation, so thousands of threads can record into the same histogram.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // enough buckets for any non negative long
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketIndex(value));
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    public long getCount() {
+        return count(bucketCounts());
+    }
+
+    public Snapshot snapshot() {
+        long[] bucketCounts = bucketCounts();
+        long count = count(bucketCounts);
+        long max = maxNanos.get();
+        return new Snapshot(count,
+                count == 0 ? 0 : totalNanos.sum() / count,
+                percentile(bucketCounts, count, max, 0.50),
+                percentile(bucketCounts, count, max, 0.99),
+                percentile(bucketCounts, count, max, 0.999),
+                max);
+    }
+
+    /**
+     * @param quantile between 0 and 1, 0.95 for the 95th percentile
+     */
+    public long percentile(double quantile) {
+        long[] bucketCounts = bucketCounts();
+        return percentile(bucketCounts, count(bucketCounts), maxNanos.get(), quantile);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowerBound = ((long) (SUB_BUCKETS + index % SUB_BUCKETS)) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    private long[] bucketCounts() {
+        long[] bucketCounts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketCounts[i] = counts.get(i);
+        }
+        return bucketCounts;
+    }
+
+    private static long count(long[] bucketCounts) {
+        long count = 0;
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    private static long percentile(long[] bucketCounts, long count, long max, double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    public static class Snapshot {
+        private final long count;
+        private final long meanNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+        private final long maxNanos;
+
+        Snapshot(long count, long meanNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+            this.count = count;
+            this.meanNanos = meanNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.p999Nanos = p999Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanNanos() {
+            return meanNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getP999Nanos() {
+            return p999Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, p999=%.3fms, max=%.3fms",
+                    count, meanNanos / 1e6, p50Nanos / 1e6, p99Nanos / 1e6, p999Nanos / 1e6, maxNanos / 1e6);
+        }
+    }
+}
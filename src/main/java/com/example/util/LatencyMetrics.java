@@ -0,0 +1,33 @@
+package com.example.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the {@link LatencyHistogram latency histograms}, one per operation name.
+ */
+public class LatencyMetrics {
+
+    private static final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public static LatencyHistogram histogram(String operation) {
+        // plain get first : computeIfAbsent locks the bin even when the histogram already exists
+        LatencyHistogram histogram = histograms.get(operation);
+        return histogram != null ? histogram : histograms.computeIfAbsent(operation, key -> new LatencyHistogram());
+    }
+
+    public static OperationTimer startTimer(String operation) {
+        return new OperationTimer(operation, histogram(operation));
+    }
+
+    public static Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> snapshot = new TreeMap<>();
+        histograms.forEach((operation, histogram) -> snapshot.put(operation, histogram.snapshot()));
+        return snapshot;
+    }
+
+    public static void logSnapshot() {
+        snapshot().forEach((operation, snapshot) -> LoggerUtil.log(operation + " : " + snapshot));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking calls on ForkJoinPool threads through {@link ForkJoinPool#managedBlock}, so the pool can start a
+ * spare thread while the call blocks, and its other tasks, the common pool's parallel streams among them, keep their
+ * parallelism.
+ * <p>
+ * Spare threads are not free : at most {@link #MAX_COMPENSATED_CALLS} calls at once are compensated, override with
+ * {@code -Dblocking.max.compensated=<n>}. Calls beyond that, and calls made outside a ForkJoinPool, simply block.
+ */
+public final class ManagedBlocking {
+
+    static final int MAX_COMPENSATED_CALLS = Integer.getInteger("blocking.max.compensated", 64);
+
+    private static final Semaphore compensatedCalls = new Semaphore(MAX_COMPENSATED_CALLS);
+    private static final LongAdder compensatedCount = new LongAdder();
+    private static final LongAdder uncompensatedCount = new LongAdder();
+
+    private ManagedBlocking() {
+    }
+
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier)}, for a {@code supplier} that blocks.
+     */
+    public static <T> CompletableFuture<T> supplyBlocking(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> callBlocking(supplier));
+    }
+
+    /**
+     * Runs {@code supplier} on the current thread, letting its ForkJoinPool compensate for it if there is one.
+     */
+    public static <T> T callBlocking(Supplier<T> supplier) {
+        if (!(Thread.currentThread() instanceof ForkJoinWorkerThread) || !compensatedCalls.tryAcquire()) {
+            uncompensatedCount.increment();
+            return supplier.get();
+        }
+        try {
+            compensatedCount.increment();
+            BlockingCall<T> blockingCall = new BlockingCall<>(supplier);
+            ForkJoinPool.managedBlock(blockingCall);
+            return blockingCall.result();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } finally {
+            compensatedCalls.release();
+        }
+    }
+
+    public static long getCompensatedCount() {
+        return compensatedCount.sum();
+    }
+
+    public static long getUncompensatedCount() {
+        return uncompensatedCount.sum();
+    }
+
+    private static final class BlockingCall<T> implements ForkJoinPool.ManagedBlocker {
+
+        private final Supplier<T> supplier;
+        private boolean done;
+        private T result;
+        private RuntimeException exception;
+
+        BlockingCall(Supplier<T> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean block() {
+            if (!done) {
+                try {
+                    result = supplier.get();
+                } catch (RuntimeException e) {
+                    exception = e;
+                }
+                done = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+
+        T result() {
+            if (exception != null) {
+                throw exception;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads named {@code <prefix>-<n>}, so that the threads of a dedicated pool
+ * can be told apart in the logs and in thread dumps.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    public NamedThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + "-" + threadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
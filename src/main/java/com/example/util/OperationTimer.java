@@ -0,0 +1,57 @@
+package com.example.util;
+
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Times a single invocation of an operation and records the duration into the operation's
+ * {@link LatencyHistogram}. Every invocation gets its own timer, so concurrent invocations never share state.
+ *
+ * <pre>
+ * OperationTimer timer = startTimer("checkout");
+ * ...
+ * timer.timeTaken();
+ * </pre>
+ */
+public class OperationTimer implements AutoCloseable {
+
+    private final String operation;
+    private final LatencyHistogram histogram;
+    private final long startNanos = System.nanoTime();
+    private long elapsedNanos = -1;
+
+    OperationTimer(String operation, LatencyHistogram histogram) {
+        this.operation = operation;
+        this.histogram = histogram;
+    }
+
+    /**
+     * Stops the timer and records the duration, only the first time it is called.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long stop() {
+        if (elapsedNanos < 0) {
+            elapsedNanos = System.nanoTime() - startNanos;
+            histogram.record(elapsedNanos);
+        }
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * Stops the timer and logs the elapsed time.
+     */
+    public long timeTaken() {
+        long elapsedMillis = stop();
+        log("Total Time Taken : " + elapsedMillis);
+        return elapsedMillis;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.util;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.example.util.LoggerUtil.log;
+
+/**
+ * Retries a failed asynchronous call, up to {@code maxAttempts} attempts in all, without blocking a thread.
+ * <p>
+ * The n-th retry waits a random time between 0 and {@code baseDelay * 2^(n-1)}, at most {@code maxDelay}
+ * ("full jitter"), so the callers that failed together do not retry together. The wait is scheduled on the JDK's
+ * shared delay scheduler. Every retry is taken from a {@link RetryBudget}. When a {@link Deadline} is given, a retry
+ * that would not be done before it, judging by how long the failed attempt took, is not made. Failing or cancelling
+ * the returned future cancels the attempt in flight.
+ */
+public class Retry {
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final RetryBudget budget;
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder abandonedCount = new LongAdder();
+
+    public Retry(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        this(maxAttempts, baseDelay, maxDelay, RetryBudget.GLOBAL);
+    }
+
+    public Retry(int maxAttempts, Duration baseDelay, Duration maxDelay, RetryBudget budget) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1 : " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.budget = budget;
+    }
+
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        return execute(call, null);
+    }
+
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call, Deadline deadline) {
+        budget.deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(call, deadline, 1, result);
+        return result;
+    }
+
+    private <T> void attempt(Supplier<CompletableFuture<T>> call, Deadline deadline, int attempt,
+                             CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> current;
+        try {
+            current = call.get();
+        } catch (RuntimeException e) {
+            current = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> inFlight = current;
+        result.whenComplete((value, ex) -> {
+            if (ex != null) {
+                inFlight.cancel(true);
+            }
+        });
+        current.whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (result.isDone() || cause instanceof CancellationException || attempt >= maxAttempts) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delayNanos = backoffNanos(attempt);
+            long attemptNanos = System.nanoTime() - startNanos;
+            if (deadline != null && delayNanos + attemptNanos >= deadline.remaining().toNanos()) {
+                abandonedCount.increment();
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!budget.tryWithdraw()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            retryCount.increment();
+            log("Retrying in " + TimeUnit.NANOSECONDS.toMillis(delayNanos) + " ms after : " + cause);
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> attempt(call, deadline, attempt + 1, result));
+        });
+    }
+
+    private long backoffNanos(int retry) {
+        long ceiling = Math.min(maxDelayNanos, baseDelayNanos << Math.min(retry - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    /**
+     * @return the retries not made because the deadline would have passed
+     */
+    public long getAbandonedCount() {
+        return abandonedCount.sum();
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+}
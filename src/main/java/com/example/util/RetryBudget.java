@@ -0,0 +1,77 @@
+package com.example.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the retries to a fraction of the calls. Every call deposits {@code retryRatio} of a token, every retry
+ * withdraws a whole one, so with a ratio of 0.1 at most one call in ten is retried once the initial
+ * {@code maxTokens} are spent. When a downstream service fails for everyone, the retries stop instead of multiplying
+ * its load.
+ */
+public class RetryBudget {
+
+    /**
+     * Shared by every caller that does not bring its own budget : retries of all the services count against it.
+     */
+    public static final RetryBudget GLOBAL = new RetryBudget(0.1, 20);
+
+    private static final long TOKEN = 1000;
+
+    private final long depositPerCall;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final LongAdder retriesAllowed = new LongAdder();
+    private final LongAdder retriesRejected = new LongAdder();
+
+    public RetryBudget(double retryRatio, int maxTokens) {
+        if (retryRatio < 0 || retryRatio > 1 || maxTokens < 1) {
+            throw new IllegalArgumentException("expected 0 <= retryRatio <= 1 and maxTokens >= 1 : "
+                    + retryRatio + ", " + maxTokens);
+        }
+        this.depositPerCall = (long) (retryRatio * TOKEN);
+        this.maxBalance = maxTokens * TOKEN;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * Records a first attempt.
+     */
+    public void deposit() {
+        balance.accumulateAndGet(depositPerCall, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * @return whether a retry may be made, in which case its token has been taken
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                retriesRejected.increment();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        retriesAllowed.increment();
+        return true;
+    }
+
+    public double getAvailableTokens() {
+        return (double) balance.get() / TOKEN;
+    }
+
+    public long getRetriesAllowed() {
+        return retriesAllowed.sum();
+    }
+
+    public long getRetriesRejected() {
+        return retriesRejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBudget{availableTokens=" + getAvailableTokens() + ", retriesAllowed=" + getRetriesAllowed()
+                + ", retriesRejected=" + getRetriesRejected() + "}";
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls : while a call for a key is in flight, every other call for the same key
+ * shares its result instead of being made again. The key is forgotten as soon as the call completes, so nothing
+ * is cached : the next call after completion is made again.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * Makes the call in the calling thread, unless an identical one is in flight, in which case the calling thread
+     * waits for that one.
+     */
+    public V execute(K key, Supplier<V> call) {
+        callCount.increment();
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalescedCount.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // the exception the leader got, as it got it
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            V value = call.get();
+            inFlight.remove(key, promise);
+            promise.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the call, unless an identical one is in flight. Every caller gets its own copy of the shared future,
+     * so one caller cancelling or completing it does not affect the others.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        callCount.increment();
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalescedCount.increment();
+            return existing.copy();
+        }
+
+        try {
+            call.get().whenComplete((value, ex) -> {
+                // forget the key first, so that a call made once the result is visible is made again
+                inFlight.remove(key, promise);
+                if (ex != null) {
+                    promise.completeExceptionally(ex);
+                } else {
+                    promise.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+        }
+        return promise.copy();
+    }
+
+    public long getCallCount() {
+        return callCount.sum();
+    }
+
+    /**
+     * @return how many calls shared the result of an identical call instead of being made
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -1,13 +1,13 @@
 package com.example.competablefuture;
 
 import com.example.service.HelloWorldService;
+import com.example.util.OperationTimer;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.util.concurrent.CompletableFuture;
 
 import static com.example.util.CommonUtil.startTimer;
-import static com.example.util.CommonUtil.timeTaken;
 import static org.junit.jupiter.api.Assertions.*;
 
 class CompletableFutureHelloWorldTest {
@@ -133,7 +133,7 @@ class CompletableFutureHelloWorldTest {
 
         //given
         //when
-        startTimer();
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_thenCompose");
 
         CompletableFuture<String> completableFuture = cfhw.helloWorld_thenCompose();
 
@@ -144,7 +144,7 @@ class CompletableFutureHelloWorldTest {
                     assertEquals("HELLO WORLD!", s);
                 })
                 .join();
-        timeTaken();
+        timer.timeTaken();
 
 
     }
@@ -155,7 +155,7 @@ class CompletableFutureHelloWorldTest {
 
         //given
         //when
-        startTimer();
+        OperationTimer timer = startTimer("CompletableFutureHelloWorld.helloWorld_complete");
 
         CompletableFuture<String> completableFuture = cfhw.complete("hello world!");
 
@@ -166,7 +166,7 @@ class CompletableFutureHelloWorldTest {
                     assertEquals("12 - HELLO WORLD!", s);
                 })
                 .join();
-        timeTaken();
+        timer.timeTaken();
 
 
     }
@@ -209,4 +209,18 @@ class CompletableFutureHelloWorldTest {
         //then
         assertEquals("Hello World", result);
     }
+
+    @Test
+    void anyOf_race() {
+
+        //given
+        long startTime = System.currentTimeMillis();
+
+        //when
+        String result = cfhw.anyOf_race();
+
+        //then
+        assertEquals("Hello World", result);
+        assertTrue(System.currentTimeMillis() - startTime < 2000);
+    }
 }
\ No newline at end of file
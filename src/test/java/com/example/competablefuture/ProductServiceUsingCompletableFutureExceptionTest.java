@@ -1,19 +1,22 @@
 package com.example.competablefuture;
 
 import com.example.domain.Product;
-import com.example.domain.ProductOption;
 import com.example.service.InventoryService;
 import com.example.service.ProductInfoService;
 import com.example.service.ReviewService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,9 +30,18 @@ class ProductServiceUsingCompletableFutureExceptionTest {
     @Mock
     InventoryService isMock;
 
-    @InjectMocks
     ProductServiceUsingCompletableFuture pscf;
 
+    @BeforeEach
+    void setUp() {
+        pscf = new ProductServiceUsingCompletableFuture(pisMock, rssMock, isMock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pscf.shutdown();
+    }
+
     @Test
     void retrieveProductDetails_reviewServiceError() {
 
@@ -37,7 +49,7 @@ class ProductServiceUsingCompletableFutureExceptionTest {
         String productId = "ABC123";
         when(pisMock.retrieveProductInfo(any())).thenCallRealMethod();
         when(rssMock.retrieveReviews(any())).thenThrow(new RuntimeException("Exception Occurred"));
-        when(isMock.retrieveInventory(any(ProductOption.class))).thenCallRealMethod();
+        when(isMock.retrieveInventory(anyList())).thenCallRealMethod();
 
 
         //when
@@ -77,7 +89,7 @@ class ProductServiceUsingCompletableFutureExceptionTest {
         String productId = "ABC123";
         when(pisMock.retrieveProductInfo(any())).thenCallRealMethod();
         when(rssMock.retrieveReviews(any())).thenCallRealMethod();
-        when(isMock.retrieveInventory(any(ProductOption.class))).thenThrow(new RuntimeException("Exception Occurred"));
+        when(isMock.retrieveInventory(anyList())).thenThrow(new RuntimeException("Exception Occurred"));
 
 
         //when
@@ -94,4 +106,26 @@ class ProductServiceUsingCompletableFutureExceptionTest {
         assertNotNull(product.getReview());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void retrieveProductDetails_reviewServiceErrorIsRetried() {
+
+        //given
+        String productId = "ABC123";
+        when(pisMock.retrieveProductInfo(any())).thenCallRealMethod();
+        when(rssMock.retrieveReviews(any()))
+                .thenThrow(new RuntimeException("Exception Occurred"))
+                .thenCallRealMethod();
+        when(isMock.retrieveInventory(anyList())).thenCallRealMethod();
+
+        //when
+        Product product = pscf.retrieveProductDetailsWithInventory_retrying(productId, Duration.ofSeconds(5));
+
+        //then
+        assertNotNull(product);
+        assertEquals(200, product.getReview().getNoOfReviews());
+        product.getProductInfo().getProductOptions()
+                .forEach(productOption -> assertEquals(2, productOption.getInventory().getCount()));
+        assertTrue(pscf.getRetry().getRetryCount() >= 1);
+    }
+}
@@ -4,13 +4,23 @@ import com.example.domain.Product;
 import com.example.service.InventoryService;
 import com.example.service.ProductInfoService;
 import com.example.service.ReviewService;
+import com.example.util.OperationTimer;
+import com.example.util.Retry;
+import com.example.util.RetryBudget;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import static com.example.util.CommonUtil.startTimer;
-import static com.example.util.CommonUtil.timeTaken;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProductServiceUsingCompletableFutureTest {
@@ -20,12 +30,16 @@ class ProductServiceUsingCompletableFutureTest {
     InventoryService is = new InventoryService();
     ProductServiceUsingCompletableFuture pscf = new ProductServiceUsingCompletableFuture(pis, rs, is);
 
+    @AfterEach
+    void tearDown() {
+        pscf.shutdown();
+    }
+
     @Test
     void retrieveProductDetails() {
 
         //given
         String productId = "ABC123";
-        startTimer();
 
         //when
         Product product = pscf.retrieveProductDetails(productId);
@@ -43,7 +57,7 @@ class ProductServiceUsingCompletableFutureTest {
 
         //given
         String productId = "ABC123";
-        startTimer();
+        OperationTimer timer = startTimer("ProductServiceUsingCompletableFuture.retrieveProductDetails_CF");
 
         //when
         CompletableFuture<Product> cfProduct = pscf.retrieveProductDetails_CF(productId);
@@ -57,7 +71,7 @@ class ProductServiceUsingCompletableFutureTest {
                 }))
                 .join();
 
-        timeTaken();
+        timer.timeTaken();
 
     }
 
@@ -66,7 +80,6 @@ class ProductServiceUsingCompletableFutureTest {
 
         //given
         String productId = "ABC123";
-        startTimer();
 
         //when
         Product product = pscf.retrieveProductDetailsWithInventory(productId);
@@ -88,7 +101,6 @@ class ProductServiceUsingCompletableFutureTest {
 
         //given
         String productId = "ABC123";
-        startTimer();
 
         //when
         Product product = pscf.retrieveProductDetailsWithInventory_approach2(productId);
@@ -105,4 +117,64 @@ class ProductServiceUsingCompletableFutureTest {
         assertNotNull(product.getReview());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void retrieveProductDetailsWithInventory_withinBudget() {
+
+        //given
+        String productId = "ABC123";
+
+        //when
+        Product product = pscf.retrieveProductDetailsWithInventory(productId, Duration.ofSeconds(3));
+
+        //then
+        assertTrue(product.getProductInfo().getProductOptions().size() > 0);
+        product.getProductInfo().getProductOptions()
+                .forEach(productOption -> assertEquals(2, productOption.getInventory().getCount()));
+        assertEquals(200, product.getReview().getNoOfReviews());
+    }
+
+    @Test
+    void retrieveProductDetailsWithInventory_budgetExceeded() {
+
+        //given
+        String productId = "ABC123";
+
+        //when
+        long startTime = System.currentTimeMillis();
+        Product product = pscf.retrieveProductDetailsWithInventory(productId, Duration.ofMillis(500));
+        long timeTaken = System.currentTimeMillis() - startTime;
+
+        //then
+        assertTrue(timeTaken < 1000);
+        assertEquals(productId, product.getProductInfo().getProductId());
+        assertEquals(0, product.getProductInfo().getProductOptions().size());
+        assertEquals(0, product.getReview().getNoOfReviews());
+    }
+
+    @Test
+    void retrieveProductDetailsWithInventory_injectedPolicies() {
+
+        //given
+        Retry retry = new Retry(2, Duration.ofMillis(10), Duration.ofMillis(50), new RetryBudget(0.5, 5));
+        ProductServicePolicies policies = ProductServicePolicies.defaults(pis, rs, ProductServiceUsingCompletableFuture.ioExecutor)
+                .toBuilder()
+                .retry(retry)
+                .build();
+        ProductServiceUsingCompletableFuture injected = new ProductServiceUsingCompletableFuture(pis, rs, is, policies);
+
+        //when
+        Product product = injected.retrieveProductDetailsWithInventory_resilient("ABC123");
+        injected.shutdown(); // injected policies belong to the caller
+        Product again = injected.retrieveProductDetailsWithInventory_resilient("ABC123");
+        policies.shutdown();
+        CompletableFuture<String> afterShutdown = policies.getReviewBulkhead().supply(() -> "too late");
+
+        //then
+        assertSame(retry, injected.getRetry());
+        assertEquals(200, product.getReview().getNoOfReviews());
+        assertEquals(200, again.getReview().getNoOfReviews());
+        CompletionException exception = assertThrows(CompletionException.class, afterShutdown::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+    }
+}
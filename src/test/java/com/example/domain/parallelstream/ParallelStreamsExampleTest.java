@@ -1,6 +1,7 @@
 package com.example.domain.parallelstream;
 
 import com.example.util.DataSet;
+import com.example.util.OperationTimer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -16,9 +17,9 @@ class ParallelStreamsExampleTest {
 
     @Test
     void stringTransform() {
-        startTimer();
+        OperationTimer timer = startTimer("ParallelStreamsExample.stringTransform");
         List<String> stringList = parallelismExample.stringTransform(DataSet.namesList());
-        timeTaken();
+        timer.timeTaken();
         assertEquals(4, stringList.size());
         stringList.forEach((name) -> {
             assertTrue(name.contains("-"));
@@ -30,13 +31,12 @@ class ParallelStreamsExampleTest {
     void stringTransform_1(boolean isParallel) {
 
         //given
-        startTimer();
+        OperationTimer timer = startTimer("ParallelStreamsExample.stringTransform_1");
         List<String> inputList = DataSet.namesList();
 
         //when
         List<String> stringList = parallelismExample.stringTransform_1(inputList,isParallel);
-        timeTaken();
-        stopWatchReset();
+        timer.timeTaken();
 
         //then
         assertEquals(4, stringList.size());
@@ -0,0 +1,142 @@
+package com.example.reactive;
+
+import com.example.domain.Product;
+import com.example.domain.ProductPart;
+import com.example.domain.Review;
+import com.example.service.InventoryService;
+import com.example.service.ProductInfoService;
+import com.example.service.ReviewService;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveProductServiceTest {
+
+    ProductInfoService pis = new ProductInfoService();
+    ReviewService rs = new ReviewService();
+    InventoryService is = new InventoryService();
+    ReactiveProductService reactiveProductService = new ReactiveProductService(pis, rs, is);
+
+    @Test
+    void retrieveProductDetails() {
+
+        //given
+        String productId = "ABC123";
+
+        //when
+        Product product = reactiveProductService.retrieveProductDetails(productId).block();
+
+        //then
+        assertNotNull(product);
+        assertTrue(product.getProductInfo().getProductOptions().size() > 0);
+        product.getProductInfo().getProductOptions()
+                .forEach(productOption -> assertEquals(2, productOption.getInventory().getCount()));
+        assertEquals(200, product.getReview().getNoOfReviews());
+    }
+
+    @Test
+    void retrieveProductDetails_reviewServiceError() {
+
+        //given
+        ReviewService failingReviewService = new ReviewService() {
+            @Override
+            public Review retrieveReviews(String productId) {
+                throw new RuntimeException("Exception Occurred");
+            }
+        };
+        ReactiveProductService service = new ReactiveProductService(pis, failingReviewService, is);
+
+        //when
+        Product product = service.retrieveProductDetails("ABC123").block();
+
+        //then
+        assertNotNull(product);
+        assertEquals(0, product.getReview().getNoOfReviews());
+        assertTrue(product.getProductInfo().getProductOptions().size() > 0);
+    }
+
+    @Test
+    void retrieveProductDetails_bulk() {
+
+        //given
+        List<String> productIds = IntStream.range(0, 20)
+                .mapToObj(i -> "ABC" + i)
+                .collect(Collectors.toList());
+
+        //when
+        long startTime = System.currentTimeMillis();
+        List<Product> products = reactiveProductService.retrieveProductDetails(Flux.fromIterable(productIds))
+                .collectList()
+                .block();
+        long timeTaken = System.currentTimeMillis() - startTime;
+
+        //then
+        assertEquals(20, products.size());
+        assertEquals(productIds.stream().sorted().collect(Collectors.toList()),
+                products.stream().map(Product::getProductId).sorted().collect(Collectors.toList()));
+        // 16 products at a time : two rounds of 1.5 seconds instead of 20
+        assertTrue(timeTaken < 10_000);
+    }
+
+    @Test
+    void retrieveProductDetailsProgressively() {
+
+        //given
+        ReviewService slowReviewService = new ReviewService() {
+            @Override
+            public Review retrieveReviews(String productId) {
+                delay(3000);
+                return new Review(200, 4.5);
+            }
+        };
+        ReactiveProductService service = new ReactiveProductService(pis, slowReviewService, is);
+
+        //when
+        long startTime = System.currentTimeMillis();
+        ProductPart firstPart = service.retrieveProductDetailsProgressively("ABC123").blockFirst();
+        long timeToFirstPart = System.currentTimeMillis() - startTime;
+        List<ProductPart> parts = service.retrieveProductDetailsProgressively("ABC123").collectList().block();
+
+        //then
+        assertEquals(ProductPart.Type.PRODUCT_INFO, firstPart.getType());
+        assertTrue(timeToFirstPart < 2000);
+        assertEquals(5, parts.size());
+        assertEquals(ProductPart.Type.COMPLETE, parts.get(parts.size() - 1).getType());
+        assertEquals(2, parts.stream().filter(part -> part.getType() == ProductPart.Type.INVENTORY).count());
+        assertTrue(parts.stream().noneMatch(ProductPart::isFailed));
+        // the product info part keeps what it was emitted with, the inventory comes in its own parts
+        parts.get(0).getProductInfo().getProductOptions()
+                .forEach(productOption -> assertNull(productOption.getInventory()));
+    }
+
+    @Test
+    void retrieveProductDetailsProgressively_reviewServiceError() {
+
+        //given
+        ReviewService failingReviewService = new ReviewService() {
+            @Override
+            public Review retrieveReviews(String productId) {
+                throw new RuntimeException("Exception Occurred");
+            }
+        };
+        ReactiveProductService service = new ReactiveProductService(pis, failingReviewService, is);
+
+        //when
+        List<ProductPart> parts = service.retrieveProductDetailsProgressively("ABC123").collectList().block();
+
+        //then
+        ProductPart reviewPart = parts.stream()
+                .filter(part -> part.getType() == ProductPart.Type.REVIEW)
+                .findFirst().orElseThrow();
+        assertTrue(reviewPart.isFailed());
+        assertEquals("Exception Occurred", reviewPart.getError());
+        assertEquals(0, reviewPart.getReview().getNoOfReviews());
+        assertEquals(ProductPart.Type.COMPLETE, parts.get(parts.size() - 1).getType());
+    }
+}
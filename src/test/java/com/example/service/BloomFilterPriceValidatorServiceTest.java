@@ -0,0 +1,90 @@
+package com.example.service;
+
+import com.example.domain.checkout.CartItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterPriceValidatorServiceTest {
+
+    BloomFilterPriceValidatorService bloomFilterService =
+            BloomFilterPriceValidatorService.start(new PriceValidatorService(), 0.01, Duration.ofHours(1));
+
+    @AfterEach
+    void tearDown() {
+        bloomFilterService.shutdown();
+    }
+
+    @Test
+    void isCartItemInvalid_afterRebuild() {
+
+        //given
+        bloomFilterService.rebuild();
+
+        //when
+        long startTime = System.currentTimeMillis();
+        boolean valid = bloomFilterService.isCartItemInvalid(new CartItem(1, "CartItem -1", 10.0, 1, false));
+        long fastPathTime = System.currentTimeMillis() - startTime;
+        boolean invalid = bloomFilterService.isCartItemInvalid(new CartItem(7, "CartItem -7", 10.0, 1, false));
+
+        //then
+        assertFalse(valid);
+        assertTrue(invalid);
+        assertTrue(fastPathTime < 500);
+        assertTrue(bloomFilterService.getFastPathCount() >= 1);
+        assertTrue(bloomFilterService.getSlowPathCount() >= 1);
+    }
+
+    @Test
+    void validate_afterRebuild() {
+
+        //given
+        bloomFilterService.rebuild();
+        List<CartItem> cartItems = IntStream.rangeClosed(1, 20)
+                .mapToObj(i -> new CartItem(i, "CartItem -" + i, 10.0, 1, false))
+                .collect(Collectors.toList());
+
+        //when
+        BitSet invalidItems = bloomFilterService.validate(cartItems);
+
+        //then
+        assertEquals(3, invalidItems.cardinality());
+        assertTrue(invalidItems.get(6));
+        assertTrue(invalidItems.get(8));
+        assertTrue(invalidItems.get(10));
+        assertEquals(20, bloomFilterService.getFastPathCount() + bloomFilterService.getSlowPathCount());
+    }
+
+    @Test
+    void rebuild_cappedFilter() {
+
+        //given
+        Set<Integer> invalidItemIds = IntStream.range(0, 1_000).boxed().collect(Collectors.toSet());
+        PriceValidatorService manyInvalidItems = new PriceValidatorService() {
+            @Override
+            public Set<Integer> invalidItemIds() {
+                return invalidItemIds;
+            }
+        };
+        BloomFilterPriceValidatorService cappedService =
+                BloomFilterPriceValidatorService.start(manyInvalidItems, 0.01, Duration.ofHours(1), 4_096);
+
+        //when
+        cappedService.rebuild();
+        double falsePositiveRate = cappedService.getExpectedFalsePositiveRate();
+        cappedService.shutdown();
+
+        //then
+        assertTrue(falsePositiveRate > 0.05); // about 10% at 4 bits per id
+        assertTrue(falsePositiveRate < 0.2);
+        assertTrue(bloomFilterService.getExpectedFalsePositiveRate() <= 1);
+    }
+}
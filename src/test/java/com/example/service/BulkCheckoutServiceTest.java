@@ -0,0 +1,156 @@
+package com.example.service;
+
+import com.example.domain.checkout.BulkCheckoutReport;
+import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItem;
+import com.example.domain.checkout.CheckoutResponse;
+import com.example.domain.checkout.CheckoutStatus;
+import com.example.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkCheckoutServiceTest {
+
+    PriceValidatorService priceValidatorService = new PriceValidatorService();
+
+    @Test
+    void checkoutAll() {
+
+        //given
+        BulkCheckoutService bulkCheckoutService = new BulkCheckoutService(priceValidatorService, 10, 5);
+        List<Cart> carts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            carts.add(DataSet.createCart(6));
+            carts.add(DataSet.createCart(25));
+        }
+
+        //when
+        BulkCheckout bulkCheckout = bulkCheckoutService.checkoutAll(carts);
+        BulkCheckoutReport report = bulkCheckout.getReport().join();
+
+        //then
+        for (int i = 0; i < carts.size(); i++) {
+            CheckoutResponse checkoutResponse = bulkCheckout.getCartResponses().get(i).join();
+            assertEquals(i % 2 == 0 ? CheckoutStatus.SUCCESS : CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        }
+        assertEquals(20, report.getNoOfCarts());
+        assertEquals(10, report.getNoOfSuccess());
+        assertEquals(10, report.getNoOfFailure());
+        assertEquals(70, report.getNoOfValidationCalls()); // 2 chunks per 6 items cart, 5 per 25 items cart
+        System.out.println("report : " + report);
+    }
+
+    @Test
+    void checkoutAll_hugeCartDoesNotStarveSmallCarts() {
+
+        //given
+        BulkCheckoutService bulkCheckoutService = new BulkCheckoutService(priceValidatorService, 2, 50);
+        List<Cart> carts = List.of(DataSet.createCart(500),
+                DataSet.createCart(6), DataSet.createCart(6), DataSet.createCart(6), DataSet.createCart(6));
+        List<Integer> completionOrder = new CopyOnWriteArrayList<>();
+
+        //when
+        BulkCheckout bulkCheckout = bulkCheckoutService.checkoutAll(carts);
+        for (int i = 0; i < carts.size(); i++) {
+            int cartIndex = i;
+            bulkCheckout.getCartResponses().get(i).thenRun(() -> completionOrder.add(cartIndex));
+        }
+        bulkCheckout.getReport().join();
+
+        //then
+        assertEquals(5, completionOrder.size());
+        assertEquals(0, completionOrder.get(4));
+    }
+
+    @Test
+    void checkoutAll_noCarts() {
+
+        //given
+        BulkCheckoutService bulkCheckoutService = new BulkCheckoutService(priceValidatorService, 2, 50);
+
+        //when
+        BulkCheckoutReport report = bulkCheckoutService.checkoutAll(List.of()).getReport().join();
+
+        //then
+        assertEquals(0, report.getNoOfCarts());
+    }
+
+    @Test
+    void checkoutAll_executorRejects() {
+
+        //given
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        executorService.shutdown();
+        BulkCheckoutService bulkCheckoutService = new BulkCheckoutService(priceValidatorService, executorService, 2, 5);
+        List<Cart> carts = List.of(DataSet.createCart(6), DataSet.createCart(6), DataSet.createCart(25));
+
+        //when
+        BulkCheckout bulkCheckout = bulkCheckoutService.checkoutAll(carts);
+        BulkCheckoutReport report = bulkCheckout.getReport().join();
+
+        //then
+        bulkCheckout.getCartResponses().forEach(response -> {
+            CompletionException exception = assertThrows(CompletionException.class, response::join);
+            assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        });
+        assertEquals(3, report.getNoOfErrors());
+        assertEquals(0, bulkCheckoutService.getInFlightValidations());
+    }
+
+    @Test
+    void checkoutAll_failedCartStopsValidating() {
+
+        //given
+        PriceValidatorService failingValidator = new PriceValidatorService() {
+            @Override
+            public BitSet validate(List<CartItem> cartItems) {
+                throw new IllegalStateException("Price service unavailable");
+            }
+        };
+        BulkCheckoutService bulkCheckoutService = new BulkCheckoutService(failingValidator, 1, 5);
+
+        //when
+        BulkCheckout bulkCheckout = bulkCheckoutService.checkoutAll(List.of(DataSet.createCart(50)));
+        BulkCheckoutReport report = bulkCheckout.getReport().join();
+
+        //then
+        assertThrows(CompletionException.class, () -> bulkCheckout.getCartResponses().get(0).join());
+        assertEquals(1, report.getNoOfErrors());
+        assertEquals(1, report.getNoOfValidationCalls()); // not the 10 chunks of the cart
+    }
+
+    @Test
+    void checkoutAll_validatorError() {
+
+        //given
+        PriceValidatorService brokenValidator = new PriceValidatorService() {
+            @Override
+            public BitSet validate(List<CartItem> cartItems) {
+                throw new NoClassDefFoundError("com/example/PriceClient");
+            }
+        };
+        BulkCheckoutService bulkCheckoutService = new BulkCheckoutService(brokenValidator, 1, 5);
+
+        //when
+        BulkCheckout bulkCheckout = bulkCheckoutService.checkoutAll(List.of(DataSet.createCart(6), DataSet.createCart(6)));
+        BulkCheckoutReport report = bulkCheckout.getReport().join();
+
+        //then
+        bulkCheckout.getCartResponses().forEach(response -> {
+            CompletionException exception = assertThrows(CompletionException.class, response::join);
+            assertInstanceOf(NoClassDefFoundError.class, exception.getCause());
+        });
+        assertEquals(2, report.getNoOfErrors());
+        assertEquals(0, bulkCheckoutService.getInFlightValidations());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.service;
+
+import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItem;
+import com.example.domain.checkout.CheckoutResponse;
+import com.example.domain.checkout.CheckoutStatus;
+import com.example.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.BitSet;
+
+import static com.example.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingPriceValidatorServiceTest {
+
+    PriceValidatorService priceValidatorService = new PriceValidatorService();
+
+    @Test
+    void isCartItemInvalid_repeatItemIsServedFromCache() {
+
+        //given
+        CachingPriceValidatorService cachingService =
+                new CachingPriceValidatorService(priceValidatorService, Duration.ofMinutes(1), 100);
+        CartItem cartItem = new CartItem(7, "CartItem -7", 10.0, 1, false);
+
+        //when
+        boolean first = cachingService.isCartItemInvalid(cartItem);
+        boolean second = cachingService.isCartItemInvalid(cartItem);
+
+        //then
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals(1, cachingService.getMissCount());
+        assertEquals(1, cachingService.getHitCount());
+    }
+
+    @Test
+    void isCartItemInvalid_differentRateIsAMiss() {
+
+        //given
+        CachingPriceValidatorService cachingService =
+                new CachingPriceValidatorService(priceValidatorService, Duration.ofMinutes(1), 100);
+
+        //when
+        cachingService.isCartItemInvalid(new CartItem(1, "CartItem -1", 10.0, 1, false));
+        cachingService.isCartItemInvalid(new CartItem(1, "CartItem -1", 12.0, 1, false));
+
+        //then
+        assertEquals(2, cachingService.getMissCount());
+        assertEquals(0, cachingService.getHitCount());
+    }
+
+    @Test
+    void isCartItemInvalid_expiredEntryIsRevalidated() {
+
+        //given
+        CachingPriceValidatorService cachingService =
+                new CachingPriceValidatorService(priceValidatorService, Duration.ofMillis(100), 100);
+        CartItem cartItem = new CartItem(1, "CartItem -1", 10.0, 1, false);
+
+        //when
+        cachingService.isCartItemInvalid(cartItem);
+        delay(200);
+        cachingService.isCartItemInvalid(cartItem);
+
+        //then
+        assertEquals(2, cachingService.getMissCount());
+        assertEquals(1, cachingService.getEvictionCount());
+    }
+
+    @Test
+    void validate_sizeBound() {
+
+        //given
+        CachingPriceValidatorService cachingService =
+                new CachingPriceValidatorService(priceValidatorService, Duration.ofMinutes(1), 10);
+        Cart cart = DataSet.createCart(25);
+
+        //when
+        BitSet invalidItems = cachingService.validate(cart.getCartItemList());
+
+        //then
+        assertEquals(3, invalidItems.cardinality());
+        assertEquals(10, cachingService.size());
+        assertEquals(15, cachingService.getEvictionCount());
+    }
+
+    @Test
+    void checkout_repeatCart() {
+
+        //given
+        CachingPriceValidatorService cachingService =
+                new CachingPriceValidatorService(priceValidatorService, Duration.ofMinutes(1), 1000);
+        CheckoutService checkoutService = new CheckoutService(cachingService);
+        Cart cart = DataSet.createCart(25);
+
+        //when
+        checkoutService.checkout(cart);
+        CheckoutResponse checkoutResponse = checkoutService.checkout(cart);
+
+        //then
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        assertEquals(3, checkoutResponse.getErrorList().size());
+        assertEquals(25, cachingService.getHitCount());
+    }
+}
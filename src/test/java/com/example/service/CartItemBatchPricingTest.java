@@ -0,0 +1,83 @@
+package com.example.service;
+
+import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItem;
+import com.example.domain.checkout.CartItemBatch;
+import com.example.util.DataSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartItemBatchPricingTest {
+
+    CheckoutService checkoutService = new CheckoutService(new PriceValidatorService());
+
+    @Test
+    void cartItemBatch_roundTrip() {
+
+        //given
+        Cart cart = DataSet.createCart(10);
+
+        //when
+        Cart roundTrip = CartItemBatch.from(cart).toCart();
+
+        //then
+        assertEquals(cart, roundTrip);
+    }
+
+    @Test
+    void cartItemBatch_roundTripExpired() {
+
+        //given
+        Cart cart = new Cart(1, List.of(
+                new CartItem(1, "CartItem -1", 10.0, 1, false),
+                new CartItem(2, "CartItem -2", 20.0, 2, true)));
+
+        //when
+        CartItemBatch cartItemBatch = CartItemBatch.from(cart);
+        Cart roundTrip = cartItemBatch.toCart();
+
+        //then
+        assertFalse(cartItemBatch.isExpired(0));
+        assertTrue(cartItemBatch.isExpired(1));
+        assertEquals(cart, roundTrip);
+    }
+
+    @Test
+    void calculateFinalPrice_compensated() {
+
+        //given
+        int size = 1_000_000;
+        List<CartItem> cartItemList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cartItemList.add(new CartItem(i, "CartItem -" + i, 0.1, 1, false));
+        }
+        CartItemBatch cartItemBatch = CartItemBatch.from(new Cart(1, cartItemList));
+
+        //when
+        double finalRate = checkoutService.calculateFinalPrice(cartItemBatch);
+
+        //then
+        assertEquals(100_000.0, finalRate, 1e-9);
+    }
+
+    @Test
+    void calculateFinalPrice_deterministic() throws Exception {
+
+        //given
+        CartItemBatch cartItemBatch = CartItemBatch.from(DataSet.createCart(100_000));
+        ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+
+        //when
+        double parallel = checkoutService.calculateFinalPrice(cartItemBatch);
+        double sequential = singleThreadPool.submit(() -> checkoutService.calculateFinalPrice(cartItemBatch)).get();
+        singleThreadPool.shutdown();
+
+        //then
+        assertEquals(parallel, sequential);
+    }
+}
@@ -1,14 +1,29 @@
 package com.example.service;
 
 import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItem;
 import com.example.domain.checkout.CheckoutResponse;
 import com.example.domain.checkout.CheckoutStatus;
 import com.example.util.DataSet;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CheckoutServiceTest {
@@ -86,4 +101,222 @@ class CheckoutServiceTest {
         //then
         assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkoutAsync_25_items() {
+
+        //given
+        Cart cart = DataSet.createCart(25);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutAsync(cart).join();
+
+        //then
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        assertEquals(3, checkoutResponse.getErrorList().size());
+    }
+
+    @Test
+    void checkoutFailFast_6_items() {
+
+        //given
+        Cart cart = DataSet.createCart(6);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutFailFast(cart);
+
+        //then
+        assertEquals(CheckoutStatus.SUCCESS, checkoutResponse.getCheckoutStatus());
+        assertTrue(checkoutResponse.getFinalRate()>0);
+    }
+
+    @Test
+    void checkoutFailFast_500_items() {
+
+        //given
+        Cart cart = DataSet.createCart(500);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutFailFast(cart);
+
+        //then
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        assertFalse(checkoutResponse.getErrorList().isEmpty());
+        checkoutResponse.getErrorList().forEach(cartItem -> assertTrue(cartItem.isExpired()));
+    }
+
+    @Test
+    void checkoutFailFast_validatorError() {
+
+        //given
+        Cart cart = DataSet.createCart(6);
+        PriceValidatorService failingValidator = new PriceValidatorService() {
+            @Override
+            public boolean isCartItemInvalid(CartItem cartItem) {
+                throw new IllegalStateException("Price service unavailable");
+            }
+        };
+        CheckoutService checkoutService = new CheckoutService(failingValidator);
+
+        //when
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> checkoutService.checkoutFailFast(cart));
+
+        //then
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void checkoutFailFast_skipsValidationsNotStarted() {
+
+        //given
+        Cart cart = DataSet.createCart(100);
+        AtomicInteger validations = new AtomicInteger();
+        PriceValidatorService rejectingValidator = new PriceValidatorService() {
+            @Override
+            public boolean isCartItemInvalid(CartItem cartItem) {
+                validations.incrementAndGet();
+                return true;
+            }
+        };
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        CheckoutService checkoutService = new CheckoutService(rejectingValidator, singleThread);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutFailFast(cart);
+        singleThread.shutdown();
+
+        //then
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        assertEquals(1, checkoutResponse.getErrorList().size());
+        // the items queued behind the first invalid one are never validated
+        assertEquals(1, validations.get());
+    }
+
+    @Test
+    void checkoutAndReserve_commitsStock() {
+
+        //given
+        Cart cart = DataSet.createCart(6);
+        InventoryStore inventoryStore = new InventoryStore(10);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutAndReserve(cart, inventoryStore,
+                cartItem -> cartItem.getItemId() + 1000);
+
+        //then
+        assertEquals(CheckoutStatus.SUCCESS, checkoutResponse.getCheckoutStatus());
+        cart.getCartItemList().forEach(cartItem -> {
+            int productionOptionId = cartItem.getItemId() + 1000;
+            assertEquals(10 - cartItem.getQuantity(), inventoryStore.getAvailable(productionOptionId));
+            assertEquals(0, inventoryStore.getReserved(productionOptionId));
+        });
+    }
+
+    @Test
+    void checkoutAndReserve_notEnoughStock() {
+
+        //given
+        Cart cart = DataSet.createCart(6); // item n wants n units
+        InventoryStore inventoryStore = new InventoryStore(5);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutAndReserve(cart, inventoryStore,
+                cartItem -> cartItem.getItemId() + 1000);
+
+        //then
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        assertEquals(List.of(6), checkoutResponse.getErrorList().stream()
+                .map(CartItem::getItemId)
+                .collect(Collectors.toList()));
+        IntStream.rangeClosed(1001, 1006).forEach(productionOptionId -> {
+            assertEquals(5, inventoryStore.getAvailable(productionOptionId));
+            assertEquals(0, inventoryStore.getReserved(productionOptionId));
+        });
+    }
+
+    @Test
+    void checkoutAndReserve_invalidPriceReleasesStock() {
+
+        //given
+        Cart cart = DataSet.createCart(12); // items 7, 9 and 11 have an invalid price
+        InventoryStore inventoryStore = new InventoryStore(100);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutAndReserve(cart, inventoryStore,
+                cartItem -> cartItem.getItemId() + 1000);
+
+        //then
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        IntStream.rangeClosed(1001, 1012).forEach(productionOptionId -> {
+            assertEquals(100, inventoryStore.getAvailable(productionOptionId));
+            assertEquals(0, inventoryStore.getReserved(productionOptionId));
+        });
+    }
+
+    @Test
+    void checkoutInChunks_6_items() {
+
+        //given
+        Cart cart = DataSet.createCart(6);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutInChunks(cart, 4);
+
+        //then
+        assertEquals(CheckoutStatus.SUCCESS, checkoutResponse.getCheckoutStatus());
+        assertTrue(checkoutResponse.getFinalRate()>0);
+    }
+
+    @Test
+    void checkoutInChunks_500_items() {
+
+        //given
+        Cart cart = DataSet.createCart(500);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutInChunks(cart, 100);
+
+        //then
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        assertEquals(List.of(7, 9, 11), checkoutResponse.getErrorList().stream()
+                .map(CartItem::getItemId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void checkoutStream_iterator() {
+
+        //given
+        Cart cart = DataSet.createCart(1000);
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutStream(cart.getCartItemList().iterator(), 100, 4);
+
+        //then
+        assertEquals(CheckoutStatus.FAILURE, checkoutResponse.getCheckoutStatus());
+        assertEquals(3, checkoutResponse.getErrorList().size());
+    }
+
+    @Test
+    void checkoutStream_file(@TempDir Path tempDir) throws IOException {
+
+        //given
+        Cart cart = DataSet.createCart(6);
+        Path cartFile = tempDir.resolve("cart.csv");
+        Files.write(cartFile, cart.getCartItemList().stream()
+                .map(cartItem -> cartItem.getItemId() + "," + cartItem.getItemName() + ","
+                        + cartItem.getRate() + "," + cartItem.getQuantity())
+                .collect(Collectors.toList()));
+        double expectedRate = cart.getCartItemList().stream()
+                .mapToDouble(cartItem -> cartItem.getQuantity() * cartItem.getRate())
+                .sum();
+
+        //when
+        CheckoutResponse checkoutResponse = checkoutService.checkoutStream(cartFile, 4, 2);
+
+        //then
+        assertEquals(CheckoutStatus.SUCCESS, checkoutResponse.getCheckoutStatus());
+        assertEquals(expectedRate, checkoutResponse.getFinalRate(), 1e-9);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.service;
+
+import com.example.domain.checkout.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingPriceValidatorServiceTest {
+
+    AtomicInteger validations = new AtomicInteger();
+
+    PriceValidatorService priceValidatorService = new PriceValidatorService() {
+        @Override
+        public boolean isCartItemInvalid(CartItem cartItem) {
+            validations.incrementAndGet();
+            return super.isCartItemInvalid(cartItem);
+        }
+    };
+
+    CoalescingPriceValidatorService coalescingService = new CoalescingPriceValidatorService(priceValidatorService);
+
+    @Test
+    void isCartItemInvalid_concurrentIdenticalValidations() {
+
+        //given
+        CartItem cartItem = new CartItem(7, "CartItem -7", 10.0, 1, false);
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+
+        //when
+        List<CompletableFuture<Boolean>> results = IntStream.range(0, 20)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> coalescingService.isCartItemInvalid(cartItem), executorService))
+                .collect(Collectors.toList());
+        results.forEach(result -> assertTrue(result.join()));
+        executorService.shutdown();
+
+        //then
+        System.out.println("validations : " + validations.get() + ", coalesced : " + coalescingService.getCoalescedCount());
+        assertEquals(20, coalescingService.getCallCount());
+        assertEquals(20, validations.get() + coalescingService.getCoalescedCount());
+        assertTrue(validations.get() < 20);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.service;
+
+import com.example.domain.checkout.Cart;
+import com.example.domain.checkout.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryStoreTest {
+
+    InventoryStore inventoryStore = new InventoryStore(2);
+
+    @Test
+    void reserve_concurrentNeverOversells() {
+
+        //given
+        inventoryStore.addStock(1, 998);
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+
+        //when
+        List<CompletableFuture<Void>> reservations = IntStream.range(0, 16)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        if (inventoryStore.reserve(1, 1)) {
+                            reserved.incrementAndGet();
+                        }
+                    }
+                }, executorService))
+                .collect(Collectors.toList());
+        reservations.forEach(CompletableFuture::join);
+        executorService.shutdown();
+
+        //then
+        assertEquals(1000, reserved.get());
+        assertEquals(0, inventoryStore.getAvailable(1));
+        assertEquals(1000, inventoryStore.getReserved(1));
+    }
+
+    @Test
+    void releaseAndCommit() {
+
+        //given
+        assertTrue(inventoryStore.reserve(1, 2));
+
+        //when
+        inventoryStore.release(1, 1);
+        inventoryStore.commit(1, 1);
+
+        //then
+        assertEquals(1, inventoryStore.getAvailable(1));
+        assertEquals(0, inventoryStore.getReserved(1));
+        assertEquals(1, inventoryStore.inventory(1).getCount());
+        assertThrows(IllegalStateException.class, () -> inventoryStore.release(1, 1));
+    }
+
+    @Test
+    void reserveAll_notEnoughStock() {
+
+        //given
+        Cart cart = new Cart(1, List.of(
+                new CartItem(1, "CartItem -1", 10.0, 1, false),
+                new CartItem(2, "CartItem -2", 10.0, 2, false),
+                new CartItem(3, "CartItem -3", 10.0, 3, false)));
+
+        //when
+        boolean reserved = inventoryStore.reserveAll(cart, cartItem -> cartItem.getItemId() + 100);
+
+        //then
+        assertFalse(reserved);
+        IntStream.rangeClosed(101, 103).forEach(productionOptionId -> {
+            assertEquals(2, inventoryStore.getAvailable(productionOptionId));
+            assertEquals(0, inventoryStore.getReserved(productionOptionId));
+        });
+    }
+
+    @Test
+    void reserveAll() {
+
+        //when
+        boolean reserved = inventoryStore.reserveAll(Map.of(1, 1, 2, 2));
+
+        //then
+        assertTrue(reserved);
+        assertEquals(1, inventoryStore.getAvailable(1));
+        assertEquals(0, inventoryStore.getAvailable(2));
+        assertEquals(2, inventoryStore.getReserved(2));
+    }
+
+    @Test
+    void reserveAll_cartByProductionOptionId() {
+
+        //given
+        Cart cart = new Cart(1, List.of(
+                new CartItem(1, "CartItem -1", 10.0, 1, false),
+                new CartItem(2, "CartItem -2", 10.0, 1, false)));
+
+        //when
+        boolean reserved = inventoryStore.reserveAll(cart, cartItem -> 500);
+        inventoryStore.commitAll(cart, cartItem -> 500);
+
+        //then
+        assertTrue(reserved);
+        assertEquals(0, inventoryStore.getAvailable(500));
+        assertEquals(0, inventoryStore.getReserved(500));
+        assertEquals(2, inventoryStore.getAvailable(1));
+    }
+}
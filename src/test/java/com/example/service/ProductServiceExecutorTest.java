@@ -0,0 +1,109 @@
+package com.example.service;
+
+import com.example.domain.Product;
+import com.example.domain.Review;
+import com.example.util.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductServiceExecutorTest {
+
+    ExecutorService executorService = Executors.newCachedThreadPool();
+    CountDownLatch reviewStarted = new CountDownLatch(1);
+    CountDownLatch reviewInterrupted = new CountDownLatch(1);
+    ReviewService hangingReviewService = new ReviewService() {
+        @Override
+        public Review retrieveReviews(String productId) {
+            reviewStarted.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                reviewInterrupted.countDown();
+            }
+            return null;
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void retrieveProductDetails_boundedByDefaultBudget() throws InterruptedException {
+
+        //given
+        ProductServiceExecutor productService = new ProductServiceExecutor(new ProductInfoService(),
+                hangingReviewService, executorService);
+
+        //when
+        long startTime = System.currentTimeMillis();
+        Product product = productService.retrieveProductDetails("ABC123");
+        long timeTaken = System.currentTimeMillis() - startTime;
+
+        //then
+        assertTrue(timeTaken < ProductServiceExecutor.DEFAULT_BUDGET.toMillis() + 500);
+        assertFalse(product.getProductInfo().getProductOptions().isEmpty());
+        assertEquals(0, product.getReview().getNoOfReviews());
+        assertTrue(reviewInterrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void retrieveProductDetails_interruptedCancelsCalls() throws InterruptedException {
+
+        //given
+        ProductServiceExecutor productService = new ProductServiceExecutor(new ProductInfoService(),
+                hangingReviewService, executorService);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicBoolean interruptFlag = new AtomicBoolean();
+        Thread caller = new Thread(() -> {
+            try {
+                productService.retrieveProductDetails("ABC123", Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                thrown.set(e);
+                interruptFlag.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        caller.start();
+        assertTrue(reviewStarted.await(1, TimeUnit.SECONDS));
+
+        //when
+        caller.interrupt();
+        caller.join(1000);
+
+        //then
+        assertInstanceOf(InterruptedException.class, thrown.get());
+        assertTrue(interruptFlag.get());
+        assertTrue(reviewInterrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void retrieveProductDetails_overLimitFallsBack() throws InterruptedException {
+
+        //given
+        AdaptiveConcurrencyLimiter reviewLimiter = new AdaptiveConcurrencyLimiter("review", 1, 1, 1, 2.0);
+        ProductServiceExecutor productService = new ProductServiceExecutor(new ProductInfoService(),
+                new ReviewService(), executorService,
+                new AdaptiveConcurrencyLimiter("product-info", 1, 1, 1, 2.0), reviewLimiter);
+        assertTrue(reviewLimiter.tryAcquire());
+
+        //when
+        Product product = productService.retrieveProductDetails("ABC123", Duration.ofSeconds(5));
+
+        //then
+        assertFalse(product.getProductInfo().getProductOptions().isEmpty());
+        assertEquals(0, product.getReview().getNoOfReviews());
+        assertEquals(1, reviewLimiter.getRejectedCount());
+        assertEquals(0, productService.getConcurrencyLimiters().get(0).getInFlight());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.example.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100, 2.0);
+
+    @Test
+    void execute_rejectsBeyondLimit() {
+
+        //given
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        for (int i = 0; i < 10; i++) {
+            limiter.execute(() -> pending);
+        }
+
+        //when
+        CompletableFuture<String> rejected = limiter.execute(() -> CompletableFuture.completedFuture("never"));
+
+        //then
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertEquals(10, limiter.getInFlight());
+        assertEquals(1, limiter.getRejectedCount());
+
+        pending.complete("done");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void release_failureCutsLimit() {
+
+        //given
+        assertTrue(limiter.tryAcquire());
+
+        //when
+        limiter.release(System.nanoTime(), false);
+
+        //then
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void release_fastCallsUnderLoadRaiseLimit() {
+
+        //when
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                assertTrue(limiter.tryAcquire());
+            }
+            while (limiter.getInFlight() > 0) {
+                // every call took about 10ms
+                limiter.release(System.nanoTime() - 10_000_000, true);
+            }
+        }
+
+        //then
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+        assertEquals(0, limiter.getRejectedCount());
+    }
+
+    @Test
+    void release_fastFailureDoesNotBecomeBaseline() {
+
+        //given
+        assertTrue(limiter.tryAcquire());
+        limiter.release(System.nanoTime(), false);
+        int limitAfterFailure = limiter.getLimit();
+
+        //when
+        for (int round = 0; round < 20; round++) {
+            int calls = limiter.getLimit();
+            for (int i = 0; i < calls; i++) {
+                assertTrue(limiter.tryAcquire());
+            }
+            long startNanos = System.nanoTime();
+            delay(10);
+            for (int i = 0; i < calls; i++) {
+                limiter.release(startNanos, true);
+            }
+        }
+
+        //then
+        assertTrue(limiter.getLimit() >= limitAfterFailure, "limit " + limiter.getLimit());
+    }
+}
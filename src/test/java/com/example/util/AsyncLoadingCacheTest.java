@@ -0,0 +1,112 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLoadingCacheTest {
+
+    AtomicInteger loads = new AtomicInteger();
+
+    AsyncLoadingCache<Integer, String> cache = new AsyncLoadingCache<>(key -> {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture("value-" + key);
+    }, 100, value -> 1, Duration.ofHours(1), Duration.ofHours(1));
+
+    @Test
+    void get_popularKeysSurviveScan() {
+
+        //given
+        for (int i = 0; i < 10; i++) {
+            IntStream.range(0, 50).forEach(key -> cache.get(key).join());
+        }
+
+        //when
+        IntStream.range(1000, 11_000).forEach(key -> cache.get(key).join());
+        long hitsBefore = cache.getHitCount();
+        IntStream.range(0, 50).forEach(key -> assertEquals("value-" + key, cache.get(key).join()));
+
+        //then
+        System.out.println(cache);
+        assertTrue(cache.getHitCount() - hitsBefore >= 45);
+        assertTrue(cache.weightedSize() <= 100);
+        assertTrue(cache.getEvictionCount() >= 9_900);
+    }
+
+    @Test
+    void get_concurrentMissesShareOneLoad() {
+
+        //given
+        CompletableFuture<String> slowLoad = new CompletableFuture<>();
+        AsyncLoadingCache<Integer, String> slowCache = new AsyncLoadingCache<>(key -> {
+            loads.incrementAndGet();
+            return slowLoad;
+        }, 100, value -> 1, Duration.ofHours(1), Duration.ofHours(1));
+
+        //when
+        List<CompletableFuture<String>> values = IntStream.range(0, 10)
+                .mapToObj(i -> slowCache.get(1))
+                .collect(Collectors.toList());
+        slowLoad.complete("value-1");
+
+        //then
+        values.forEach(value -> assertEquals("value-1", value.join()));
+        assertEquals(1, loads.get());
+        assertEquals(1, slowCache.getMissCount());
+    }
+
+    @Test
+    void get_failedLoadIsNotCached() {
+
+        //given
+        AsyncLoadingCache<Integer, String> failingCache = new AsyncLoadingCache<>(key -> {
+            loads.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("backend down"));
+        }, 100, value -> 1, Duration.ofHours(1), Duration.ofHours(1));
+
+        //when
+        assertThrows(CompletionException.class, () -> failingCache.get(1).join());
+        assertThrows(CompletionException.class, () -> failingCache.get(1).join());
+
+        //then
+        assertEquals(2, loads.get());
+        assertEquals(0, failingCache.estimatedSize());
+        assertEquals(2, failingCache.getLoadFailureCount());
+    }
+
+    @Test
+    void get_refreshAhead() {
+
+        //given
+        AsyncLoadingCache<Integer, Integer> refreshingCache = new AsyncLoadingCache<>(key ->
+                CompletableFuture.supplyAsync(() -> {
+                    delay(100);
+                    return loads.incrementAndGet();
+                }), 100, value -> 1, Duration.ofMillis(600), Duration.ofMillis(200));
+        refreshingCache.get(1).join();
+
+        //when
+        long maxWaitMillis = 0;
+        for (int i = 0; i < 30; i++) {
+            delay(50);
+            long startTime = System.currentTimeMillis();
+            refreshingCache.get(1).join();
+            maxWaitMillis = Math.max(maxWaitMillis, System.currentTimeMillis() - startTime);
+        }
+
+        //then
+        System.out.println(refreshingCache);
+        assertTrue(maxWaitMillis < 100);
+        assertTrue(refreshingCache.getRefreshCount() > 0);
+        assertEquals(1, refreshingCache.getMissCount());
+    }
+}
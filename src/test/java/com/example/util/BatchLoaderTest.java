@@ -0,0 +1,139 @@
+package com.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchLoaderTest {
+
+    ExecutorService executorService = Executors.newCachedThreadPool();
+    AtomicInteger bulkCalls = new AtomicInteger();
+
+    BatchLoader<Integer, String> batchLoader = new BatchLoader<>(keys -> {
+        bulkCalls.incrementAndGet();
+        return keys.stream()
+                .filter(key -> key >= 0)
+                .collect(Collectors.toMap(Function.identity(), key -> "value-" + key));
+    }, Duration.ofMillis(50), 100, executorService);
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void load_concurrentKeys() {
+
+        //when
+        List<CompletableFuture<String>> values = IntStream.range(0, 1000)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> batchLoader.load(i), executorService)
+                        .thenCompose(Function.identity()))
+                .collect(Collectors.toList());
+
+        //then
+        IntStream.range(0, 1000).forEach(i -> assertEquals("value-" + i, values.get(i).join()));
+        System.out.println(batchLoader);
+        assertEquals(bulkCalls.get(), batchLoader.getBatchCount());
+        assertTrue(bulkCalls.get() <= 100);
+    }
+
+    @Test
+    void load_sameKeyInWindow() {
+
+        //when
+        CompletableFuture<String> first = batchLoader.load(1);
+        CompletableFuture<String> second = batchLoader.load(1);
+
+        //then
+        assertEquals("value-1", first.join());
+        assertEquals("value-1", second.join());
+        assertEquals(1, batchLoader.getDedupedCount());
+        assertEquals(1, bulkCalls.get());
+    }
+
+    @Test
+    void load_missingKey() {
+
+        //when
+        CompletableFuture<String> missing = batchLoader.load(-1);
+
+        //then
+        CompletionException exception = assertThrows(CompletionException.class, missing::join);
+        assertTrue(exception.getCause() instanceof NoSuchElementException);
+    }
+
+    @Test
+    void load_bulkCallFails() {
+
+        //given
+        BatchLoader<Integer, String> failingLoader = new BatchLoader<>(keys -> {
+            throw new IllegalStateException("backend down");
+        }, Duration.ofMillis(10), 100, executorService);
+
+        //when
+        CompletableFuture<String> value = failingLoader.load(1);
+
+        //then
+        CompletionException exception = assertThrows(CompletionException.class, value::join);
+        assertEquals("backend down", exception.getCause().getMessage());
+    }
+
+    @Test
+    void load_bulkCallReturnsNull() {
+
+        //given
+        BatchLoader<Integer, String> nullLoader = new BatchLoader<>(keys -> null, Duration.ofMillis(10), 100, executorService);
+
+        //when
+        CompletableFuture<String> first = nullLoader.load(1);
+        CompletableFuture<String> second = nullLoader.load(2);
+
+        //then
+        assertTrue(assertThrows(CompletionException.class, first::join).getCause() instanceof IllegalStateException);
+        assertTrue(assertThrows(CompletionException.class, second::join).getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void load_badKeyDoesNotStrandOthers() {
+
+        //given
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            Map<Integer, String> values = new HashMap<>() {
+                @Override
+                public String get(Object key) {
+                    if (key.equals(2)) {
+                        throw new IllegalStateException("corrupt value");
+                    }
+                    return super.get(key);
+                }
+            };
+            keys.forEach(key -> values.put(key, "value-" + key));
+            return values;
+        }, Duration.ofMillis(10), 100, executorService);
+
+        //when
+        CompletableFuture<String> first = loader.load(1);
+        CompletableFuture<String> bad = loader.load(2);
+        CompletableFuture<String> third = loader.load(3);
+
+        //then
+        assertEquals("value-1", first.join());
+        assertEquals("corrupt value", assertThrows(CompletionException.class, bad::join).getCause().getMessage());
+        assertEquals("value-3", third.join());
+    }
+}
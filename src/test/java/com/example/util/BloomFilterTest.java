@@ -0,0 +1,69 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_noFalseNegatives() {
+
+        //given
+        BloomFilter bloomFilter = BloomFilter.create(10_000, 0.01);
+
+        //when
+        IntStream.range(0, 10_000).forEach(bloomFilter::put);
+
+        //then
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(bloomFilter.mightContain(i)));
+    }
+
+    @Test
+    void mightContain_falsePositiveRate() {
+
+        //given
+        BloomFilter bloomFilter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(bloomFilter::put);
+
+        //when
+        long falsePositives = IntStream.range(10_000, 110_000)
+                .filter(bloomFilter::mightContain)
+                .count();
+
+        //then
+        System.out.println("falsePositives : " + falsePositives + ", bits : " + bloomFilter.bitSize());
+        assertTrue(falsePositives < 2_000);
+    }
+
+    @Test
+    void create_cappedBits() {
+
+        //given
+        BloomFilter bloomFilter = BloomFilter.create(10_000, 0.01, 48_000);
+
+        //when
+        IntStream.range(0, 10_000).forEach(bloomFilter::put);
+        long falsePositives = IntStream.range(10_000, 110_000)
+                .filter(bloomFilter::mightContain)
+                .count();
+
+        //then
+        assertEquals(48_000, bloomFilter.bitSize());
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(bloomFilter.mightContain(i)));
+        double expectedRate = bloomFilter.expectedFalsePositiveRate(10_000);
+        assertEquals(0.1, expectedRate, 0.02); // 4.8 bits per value
+        assertEquals(expectedRate, falsePositives / 100_000.0, 0.02);
+    }
+
+    @Test
+    void create_invalidFalsePositiveRate() {
+
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.example.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    Bulkhead bulkhead = new Bulkhead("test", 2, 1);
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void supply_rejectsBeyondQueue() {
+
+        //given
+        CompletableFuture<String> first = bulkhead.supply(() -> {
+            delay(300);
+            return "first";
+        });
+        CompletableFuture<String> second = bulkhead.supply(() -> {
+            delay(300);
+            return "second";
+        });
+        CompletableFuture<String> queued = bulkhead.supply(() -> "queued");
+
+        //when
+        CompletableFuture<String> rejected = bulkhead.supply(() -> "rejected");
+
+        //then
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertTrue(exception.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals("first", first.join());
+        assertEquals("second", second.join());
+        assertEquals("queued", queued.join());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    CircuitBreaker circuitBreaker = new CircuitBreaker("test", 0.5, 0.5,
+            Duration.ofMillis(100), 10, Duration.ofMillis(300));
+    AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void execute_opensOnFailures() {
+
+        //given
+        for (int i = 0; i < 10; i++) {
+            assertEquals("fallback", circuitBreaker.execute(this::failingCall, () -> "fallback").join());
+        }
+
+        //when
+        String result = circuitBreaker.execute(this::failingCall, () -> "fallback").join();
+
+        //then
+        assertEquals("fallback", result);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(5, calls.get());
+        assertTrue(circuitBreaker.getNotPermittedCount() >= 6);
+    }
+
+    @Test
+    void execute_opensOnSlowCalls() {
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.execute(() -> CompletableFuture.supplyAsync(() -> {
+                delay(150);
+                return "slow";
+            }), () -> "fallback").join();
+        }
+
+        //then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void execute_closesAfterWaitDuration() {
+
+        //given
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.execute(this::failingCall, () -> "fallback").join();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        delay(350);
+
+        //when
+        String result = circuitBreaker.execute(() -> CompletableFuture.completedFuture("ok"), () -> "fallback").join();
+
+        //then
+        assertEquals("ok", result);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void execute_reopensWhenTrialCallHangs() {
+
+        //given
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.execute(this::failingCall, () -> "fallback").join();
+        }
+        delay(350);
+        CompletableFuture<String> trial = circuitBreaker.execute(CompletableFuture::new, () -> "fallback");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals("fallback", circuitBreaker.execute(() -> CompletableFuture.completedFuture("ok"), () -> "fallback").join());
+
+        //when
+        delay(350);
+        String whileReopened = circuitBreaker.execute(() -> CompletableFuture.completedFuture("ok"), () -> "fallback").join();
+        delay(350);
+        String result = circuitBreaker.execute(() -> CompletableFuture.completedFuture("ok"), () -> "fallback").join();
+
+        //then
+        assertFalse(trial.isDone());
+        assertEquals("fallback", whileReopened);
+        assertEquals("ok", result);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private CompletableFuture<String> failingCall() {
+        calls.incrementAndGet();
+        return CompletableFuture.failedFuture(new IllegalStateException("backend down"));
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.example.util.FutureUtil.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FutureUtilTest {
+
+    @Test
+    void allAsList_keepsOrder() {
+
+        //given
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+
+        //when
+        CompletableFuture<List<String>> result = allAsList(List.of(first, second));
+        second.complete("world");
+        assertFalse(result.isDone());
+        first.complete("hello");
+
+        //then
+        assertEquals(List.of("hello", "world"), result.join());
+    }
+
+    @Test
+    void allAsList_failureCancelsOutstanding() {
+
+        //given
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<String> outstanding = new CompletableFuture<>();
+        CompletableFuture<List<String>> result = allAsList(List.of(failing, outstanding));
+
+        //when
+        failing.completeExceptionally(new IllegalStateException("boom"));
+
+        //then
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertTrue(outstanding.isCancelled());
+    }
+
+    @Test
+    void allAsList_cancelCancelsOutstanding() {
+
+        //given
+        CompletableFuture<String> outstanding = new CompletableFuture<>();
+        CompletableFuture<List<String>> result = allAsList(List.of(outstanding));
+
+        //when
+        result.cancel(true);
+
+        //then
+        assertTrue(outstanding.isCancelled());
+    }
+
+    @Test
+    void zip_combinesTypedResults() {
+
+        //when
+        String result = zip(CompletableFuture.completedFuture("a"),
+                CompletableFuture.supplyAsync(() -> 1),
+                CompletableFuture.supplyAsync(() -> 2.5),
+                (s, i, d) -> s + i + d)
+                .join();
+
+        //then
+        assertEquals("a12.5", result);
+    }
+
+    @Test
+    void zip_failureCancelsOutstanding() {
+
+        //given
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<Integer> outstanding = new CompletableFuture<>();
+        CompletableFuture<String> result = zip(failing, outstanding, (s, i) -> s + i);
+
+        //when
+        failing.completeExceptionally(new IllegalStateException("boom"));
+
+        //then
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertTrue(outstanding.isCancelled());
+    }
+
+    @Test
+    void firstSuccessful_cancelsOthers() {
+
+        //given
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<String> winner = new CompletableFuture<>();
+        CompletableFuture<String> loser = new CompletableFuture<>();
+        CompletableFuture<String> result = firstSuccessful(List.of(failing, winner, loser));
+
+        //when
+        failing.completeExceptionally(new IllegalStateException("boom"));
+        winner.complete("winner");
+
+        //then
+        assertEquals("winner", result.join());
+        assertTrue(loser.isCancelled());
+    }
+
+    @Test
+    void firstSuccessful_failsWhenAllFail() {
+
+        //given
+        CompletableFuture<String> first = CompletableFuture.failedFuture(new IllegalStateException("first"));
+        CompletableFuture<String> second = CompletableFuture.failedFuture(new IllegalArgumentException("second"));
+
+        //when
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> firstSuccessful(List.of(first, second)).join());
+
+        //then
+        assertEquals("first", exception.getCause().getMessage());
+        assertEquals(1, exception.getCause().getSuppressed().length);
+        assertEquals("second", exception.getCause().getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    void race_ignoresFailureAndInterruptsLosers() throws InterruptedException {
+
+        //given
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+        Supplier<String> failing = () -> {
+            throw new IllegalStateException("boom");
+        };
+        Supplier<String> winner = () -> {
+            CommonUtil.delay(100);
+            return "winner";
+        };
+        Supplier<String> loser = () -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                loserInterrupted.countDown();
+            }
+            return "loser";
+        };
+
+        //when
+        String result = race(List.of(failing, winner, loser), executorService).join();
+
+        //then
+        assertEquals("winner", result);
+        assertTrue(loserInterrupted.await(1, TimeUnit.SECONDS));
+        executorService.shutdown();
+    }
+}
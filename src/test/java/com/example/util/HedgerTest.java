@@ -0,0 +1,98 @@
+package com.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgerTest {
+
+    ExecutorService executorService = Executors.newCachedThreadPool();
+    Hedger hedger = Hedger.fixed(Duration.ofMillis(200), executorService);
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void hedge_slowPrimary() {
+
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        long startTime = System.currentTimeMillis();
+        String result = hedger.hedge(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                delay(3000);
+                return "primary";
+            }
+            delay(100);
+            return "backup";
+        }).join();
+        long timeTaken = System.currentTimeMillis() - startTime;
+
+        //then
+        assertEquals("backup", result);
+        assertTrue(timeTaken < 1000);
+        assertEquals(1, hedger.getHedgesFired());
+        assertEquals(1, hedger.getHedgeWins());
+        assertEquals(1.0, hedger.getWinRate());
+    }
+
+    @Test
+    void hedge_fastPrimary() {
+
+        //when
+        String result = hedger.hedge(() -> {
+            delay(50);
+            return "primary";
+        }).join();
+        delay(300);
+
+        //then
+        assertEquals("primary", result);
+        assertEquals(0, hedger.getHedgesFired());
+        assertEquals(0.0, hedger.getHedgeRate());
+    }
+
+    @Test
+    void hedge_allCallsFail() {
+
+        //when
+        CompletableFuture<String> result = hedger.hedge(() -> {
+            delay(300);
+            throw new IllegalStateException("backend down");
+        });
+
+        //then
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertEquals("backend down", exception.getCause().getMessage());
+        assertEquals(1, hedger.getHedgesFired());
+    }
+
+    @Test
+    void currentDelay_adaptive() {
+
+        //given
+        Hedger adaptiveHedger = Hedger.adaptive(0.95, Duration.ofSeconds(1), executorService);
+        assertEquals(Duration.ofSeconds(1), adaptiveHedger.currentDelay());
+
+        //when
+        for (int i = 0; i < 30; i++) {
+            adaptiveHedger.hedge(() -> "fast").join();
+        }
+
+        //then
+        assertTrue(adaptiveHedger.currentDelay().toMillis() < 100);
+    }
+}
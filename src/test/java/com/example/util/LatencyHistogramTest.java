@@ -0,0 +1,82 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.example.util.CommonUtil.startTimer;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketIndex_upperBound() {
+
+        //given
+        long[] values = {0, 1, 31, 32, 33, 1000, 123_456_789, Long.MAX_VALUE};
+
+        //then
+        for (long value : values) {
+            long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+            assertTrue(upperBound >= value);
+            assertTrue(upperBound - value <= value / 32, "bucket too wide for " + value);
+        }
+    }
+
+    @Test
+    void snapshot_percentiles() {
+
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        //when
+        IntStream.rangeClosed(1, 1000).forEach(millis -> histogram.record(TimeUnit.MILLISECONDS.toNanos(millis)));
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        System.out.println("snapshot : " + snapshot);
+
+        //then
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), snapshot.getP50Nanos(), TimeUnit.MILLISECONDS.toNanos(500) * 0.04);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(990), snapshot.getP99Nanos(), TimeUnit.MILLISECONDS.toNanos(990) * 0.04);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), snapshot.getMaxNanos());
+        assertTrue(snapshot.getP999Nanos() <= snapshot.getMaxNanos());
+    }
+
+    @Test
+    void record_concurrently() throws InterruptedException {
+
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+
+        //when
+        for (int i = 0; i < 16; i++) {
+            executorService.execute(() -> IntStream.range(0, 100_000).forEach(histogram::record));
+        }
+        executorService.shutdown();
+        executorService.awaitTermination(30, TimeUnit.SECONDS);
+
+        //then
+        assertEquals(1_600_000, histogram.getCount());
+        assertEquals(99_999, histogram.snapshot().getMaxNanos());
+    }
+
+    @Test
+    void startTimer_recordsIntoTheOperationHistogram() {
+
+        //given
+        OperationTimer timer = startTimer("LatencyHistogramTest.startTimer");
+
+        //when
+        CommonUtil.delay(100);
+        long elapsedMillis = timer.timeTaken();
+        timer.timeTaken();
+
+        //then
+        assertTrue(elapsedMillis >= 100);
+        assertEquals(1, LatencyMetrics.histogram("LatencyHistogramTest.startTimer").getCount());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static com.example.util.CommonUtil.delay;
+import static com.example.util.ManagedBlocking.callBlocking;
+import static com.example.util.ManagedBlocking.supplyBlocking;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManagedBlockingTest {
+
+    @Test
+    void supplyBlocking_propagatesResultAndException() {
+
+        //when
+        CompletableFuture<String> success = supplyBlocking(() -> "hello");
+        CompletableFuture<String> failure = supplyBlocking(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        //then
+        assertEquals("hello", success.join());
+        CompletionException exception = assertThrows(CompletionException.class, failure::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void callBlocking_outsideForkJoinPoolRunsInPlace() {
+
+        //given
+        long uncompensated = ManagedBlocking.getUncompensatedCount();
+
+        //when
+        String result = callBlocking(() -> Thread.currentThread().getName());
+
+        //then
+        assertEquals(Thread.currentThread().getName(), result);
+        assertEquals(uncompensated + 1, ManagedBlocking.getUncompensatedCount());
+    }
+
+    @Test
+    void supplyBlocking_stressKeepsParallelStreamsRunning() {
+
+        //given
+        int blockingCalls = ForkJoinPool.getCommonPoolParallelism() * 8;
+        long baselineNanos = timeCpuBoundParallelStream();
+
+        //when
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<Integer>> blocking = IntStream.range(0, blockingCalls)
+                .mapToObj(i -> supplyBlocking(() -> {
+                    delay(300);
+                    return i;
+                }))
+                .collect(toList());
+        long loadedNanos = timeCpuBoundParallelStream();
+        blocking.forEach(CompletableFuture::join);
+        long blockingMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        //then
+        // without compensation the blocking calls would take 8 rounds of 300 ms, and hold every worker meanwhile
+        assertTrue(blockingMillis < 1500, "blocking calls took " + blockingMillis + " ms");
+        assertTrue(loadedNanos < baselineNanos * 3 + 200_000_000L,
+                "parallel stream took " + loadedNanos / 1_000_000 + " ms, " + baselineNanos / 1_000_000 + " ms alone");
+        if (ForkJoinPool.getCommonPoolParallelism() > 1) {
+            // with a parallelism of 1, CompletableFuture starts a thread per task instead of using the common pool
+            assertTrue(ManagedBlocking.getCompensatedCount() > 0);
+        }
+    }
+
+    private long timeCpuBoundParallelStream() {
+        long startNanos = System.nanoTime();
+        long primes = IntStream.range(2, 200_000)
+                .parallel()
+                .filter(ManagedBlockingTest::isPrime)
+                .count();
+        assertEquals(17_984, primes);
+        return System.nanoTime() - startNanos;
+    }
+
+    private static boolean isPrime(int n) {
+        for (int i = 2; (long) i * i <= n; i++) {
+            if (n % i == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+
+    @Test
+    void tryWithdraw_allowsRatioOfCalls() {
+
+        //given
+        RetryBudget budget = new RetryBudget(0.1, 2);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+
+        //then
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+        assertEquals(3, budget.getRetriesAllowed());
+        assertEquals(2, budget.getRetriesRejected());
+    }
+
+    @Test
+    void deposit_isCappedAtMaxTokens() {
+
+        //given
+        RetryBudget budget = new RetryBudget(0.5, 3);
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        //then
+        assertEquals(3.0, budget.getAvailableTokens());
+    }
+}
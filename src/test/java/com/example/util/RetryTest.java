@@ -0,0 +1,101 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.example.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryTest {
+
+    RetryBudget budget = new RetryBudget(0.1, 10);
+    Retry retry = new Retry(3, Duration.ofMillis(10), Duration.ofMillis(50), budget);
+    AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void execute_retriesUntilSuccess() {
+
+        //when
+        String result = retry.execute(failingTimes(2)).join();
+
+        //then
+        assertEquals("success", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, retry.getRetryCount());
+    }
+
+    @Test
+    void execute_givesUpAfterMaxAttempts() {
+
+        //when
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> retry.execute(failingTimes(5)).join());
+
+        //then
+        assertEquals("failure 3", exception.getCause().getMessage());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void execute_stopsWhenBudgetIsSpent() {
+
+        //given
+        Retry retry = new Retry(3, Duration.ofMillis(1), Duration.ofMillis(1), new RetryBudget(0.1, 1));
+
+        //when
+        assertThrows(CompletionException.class, () -> retry.execute(failingTimes(5)).join());
+
+        //then
+        assertEquals(2, calls.get());
+        assertEquals(1, retry.getBudget().getRetriesRejected());
+    }
+
+    @Test
+    void execute_abandonsRetryBeyondDeadline() {
+
+        //given
+        Deadline deadline = Deadline.after(Duration.ofMillis(150));
+        Supplier<CompletableFuture<String>> slowFailure = () -> CompletableFuture.supplyAsync(() -> {
+            calls.incrementAndGet();
+            delay(100);
+            throw new RuntimeException("slow failure");
+        });
+
+        //when
+        assertThrows(CompletionException.class, () -> retry.execute(slowFailure, deadline).join());
+
+        //then
+        assertEquals(1, calls.get());
+        assertEquals(1, retry.getAbandonedCount());
+        assertEquals(0, retry.getRetryCount());
+    }
+
+    @Test
+    void execute_cancelPropagatesToAttempt() {
+
+        //given
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+        CompletableFuture<String> result = retry.execute(() -> attempt);
+
+        //when
+        result.cancel(true);
+
+        //then
+        assertTrue(attempt.isCancelled());
+    }
+
+    private Supplier<CompletableFuture<String>> failingTimes(int failures) {
+        return () -> CompletableFuture.supplyAsync(() -> {
+            int call = calls.incrementAndGet();
+            if (call <= failures) {
+                throw new RuntimeException("failure " + call);
+            }
+            return "success";
+        });
+    }
+}
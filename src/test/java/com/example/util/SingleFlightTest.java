@@ -0,0 +1,148 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void executeAsync_identicalCallsShareOneCall() {
+
+        //given
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> downstream = new CompletableFuture<>();
+
+        //when
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(singleFlight.executeAsync("ABC123", () -> {
+                calls.incrementAndGet();
+                return downstream;
+            }));
+        }
+        downstream.complete("hello world");
+
+        //then
+        results.forEach(result -> assertEquals("hello world", result.join()));
+        assertEquals(1, calls.get());
+        assertEquals(50, singleFlight.getCallCount());
+        assertEquals(49, singleFlight.getCoalescedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void executeAsync_keyIsForgottenOnCompletion() {
+
+        //given
+        AtomicInteger calls = new AtomicInteger();
+
+        //when
+        singleFlight.executeAsync("ABC123", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("first");
+        }).join();
+        String second = singleFlight.executeAsync("ABC123", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        }).join();
+
+        //then
+        assertEquals("second", second);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void executeAsync_failureIsShared() {
+
+        //given
+        CompletableFuture<String> downstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.executeAsync("ABC123", () -> downstream);
+        CompletableFuture<String> second = singleFlight.executeAsync("ABC123", () -> downstream);
+
+        //when
+        downstream.completeExceptionally(new RuntimeException("Exception Occurred"));
+
+        //then
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void execute_errorIsRethrownUnchanged() throws InterruptedException {
+
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> leaderError = new AtomicReference<>();
+        AtomicReference<Throwable> followerError = new AtomicReference<>();
+        Thread leader = new Thread(() -> {
+            try {
+                singleFlight.execute("ABC123", () -> {
+                    awaitQuietly(release);
+                    throw new NoClassDefFoundError("com/example/PriceClient");
+                });
+            } catch (Throwable e) {
+                leaderError.set(e);
+            }
+        });
+        Thread follower = new Thread(() -> {
+            try {
+                singleFlight.execute("ABC123", () -> "not called");
+            } catch (Throwable e) {
+                followerError.set(e);
+            }
+        });
+        leader.start();
+        while (singleFlight.getInFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+        follower.start();
+        while (singleFlight.getCoalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        //when
+        release.countDown();
+        leader.join(1000);
+        follower.join(1000);
+
+        //then
+        assertInstanceOf(NoClassDefFoundError.class, leaderError.get());
+        assertSame(leaderError.get(), followerError.get());
+    }
+
+    @Test
+    void executeAsync_cancellingOneCopyDoesNotAffectTheOthers() {
+
+        //given
+        CompletableFuture<String> downstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.executeAsync("ABC123", () -> downstream);
+        CompletableFuture<String> second = singleFlight.executeAsync("ABC123", () -> downstream);
+
+        //when
+        first.cancel(true);
+        downstream.complete("hello world");
+
+        //then
+        assertEquals("hello world", second.join());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}